@@ -12,21 +12,63 @@
  */
 package org.openhab.binding.yandexweather.handler;
 
-import java.io.BufferedReader;
+import static org.openhab.binding.yandexweather.internal.YandexWeatherBindingConstants.*;
+import static org.openhab.binding.yandexweather.internal.YandexWeatherConfiguration.DEFAULT_COORDINATE_PRECISION;
+
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.net.HttpURLConnection;
-import java.net.URL;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.yandexweather.internal.YandexWeatherApiClient;
+import org.openhab.binding.yandexweather.internal.YandexWeatherCircuitBreaker;
 import org.openhab.binding.yandexweather.internal.YandexWeatherConfiguration;
+import org.openhab.binding.yandexweather.internal.YandexWeatherFetchExecutor;
+import org.openhab.binding.yandexweather.internal.YandexWeatherIconCache;
 import org.openhab.binding.yandexweather.internal.YandexWeatherJsonParser;
+import org.openhab.binding.yandexweather.internal.YandexWeatherKeyPool;
+import org.openhab.binding.yandexweather.internal.YandexWeatherMetrics;
+import org.openhab.binding.yandexweather.internal.YandexWeatherMetrics.ErrorClass;
+import org.openhab.binding.yandexweather.internal.YandexWeatherRefreshScheduler;
+import org.openhab.binding.yandexweather.internal.YandexWeatherReplayTransport;
+import org.openhab.binding.yandexweather.internal.YandexWeatherResponseCache;
+import org.openhab.binding.yandexweather.internal.YandexWeatherService;
+import org.openhab.binding.yandexweather.internal.YandexWeatherSnapshotStore;
+import org.openhab.binding.yandexweather.internal.YandexWeatherSnapshotStore.StoredSnapshot;
+import org.openhab.binding.yandexweather.internal.YandexWeatherTile;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherForecastPart;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherSnapshot;
+import org.openhab.core.OpenHAB;
+import org.openhab.core.common.ThreadPoolManager;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.RawType;
+import org.openhab.core.library.types.StringType;
 import org.openhab.core.thing.Bridge;
 import org.openhab.core.thing.ChannelUID;
 import org.openhab.core.thing.ThingStatus;
@@ -34,6 +76,8 @@ import org.openhab.core.thing.ThingStatusDetail;
 import org.openhab.core.thing.binding.BaseBridgeHandler;
 import org.openhab.core.thing.binding.ThingHandlerService;
 import org.openhab.core.types.Command;
+import org.openhab.core.types.State;
+import org.openhab.core.types.UnDefType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -44,83 +88,395 @@ import org.slf4j.LoggerFactory;
  */
 @NonNullByDefault
 public class YandexWeatherBridgeHandler extends BaseBridgeHandler {
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    /** The diagnostics channels are published on their own, not with every request, to spare the event bus */
+    private static final long METRICS_INTERVAL_SECONDS = 60;
+
     Logger logger = LoggerFactory.getLogger(YandexWeatherBridgeHandler.class);
     private @Nullable ScheduledFuture<?> refreshPollingJob;
+    private @Nullable ScheduledFuture<?> metricsJob;
     private @Nullable YandexWeatherConfiguration bridgeConfig;
-    private @Nullable Map<String, YandexWeatherHandler> locationsHandlerMap = new HashMap<>();
-    protected long lastRefresh = 0;
+    private @Nullable YandexWeatherApiClient apiClient;
+    private @Nullable YandexWeatherKeyPool keyPool;
+    private @Nullable YandexWeatherSnapshotStore snapshotStore;
+    private final Map<String, TileSubscription> tileSubscriptions = new ConcurrentHashMap<>();
+    private final Map<YandexWeatherHandler, YandexWeatherTile> handlerTiles = new ConcurrentHashMap<>();
+    private final YandexWeatherRefreshScheduler refreshScheduler = new YandexWeatherRefreshScheduler();
+    private final YandexWeatherService weatherService;
+    private final YandexWeatherResponseCache responseCache;
+    private final YandexWeatherCircuitBreaker circuitBreaker = new YandexWeatherCircuitBreaker();
+    private final YandexWeatherMetrics metrics = new YandexWeatherMetrics();
+    private final YandexWeatherFetchExecutor fetchExecutor = new YandexWeatherFetchExecutor(
+            ThreadPoolManager.getPool(BINDING_ID));
 
-    public YandexWeatherBridgeHandler(Bridge bridge) {
+    public YandexWeatherBridgeHandler(Bridge bridge, YandexWeatherService weatherService) {
         super(bridge);
+        this.weatherService = weatherService;
+        this.responseCache = weatherService.getResponseCache();
     }
 
     @Override
     public void initialize() {
-        bridgeConfig = getConfigAs(YandexWeatherConfiguration.class);
+        YandexWeatherConfiguration bridgeConfig = getConfigAs(YandexWeatherConfiguration.class);
+        this.bridgeConfig = bridgeConfig;
+        List<String> apiKeys = YandexWeatherKeyPool.parseKeys(bridgeConfig.api);
+        if (apiKeys.isEmpty()) {
+            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR, "API key");
+            return;
+        }
         updateStatus(ThingStatus.UNKNOWN);
+        if (bridgeConfig.replayDirectory.isBlank()) {
+            this.apiClient = weatherService.newApiClient(bridgeConfig.baseUrl, bridgeConfig.endpoint,
+                    bridgeConfig.forecastDays, bridgeConfig.forecastHours);
+        } else {
+            // a relative directory is looked up in the binding's userdata folder
+            Path replayDirectory = Path.of(OpenHAB.getUserDataFolder(), BINDING_ID)
+                    .resolve(bridgeConfig.replayDirectory.trim());
+            logger.info("Bridge {} replays responses from {} instead of requesting the API", getThing().getUID(),
+                    replayDirectory);
+            this.apiClient = new YandexWeatherApiClient(
+                    new YandexWeatherReplayTransport(replayDirectory, bridgeConfig.replayLatency,
+                            bridgeConfig.replayErrorRate),
+                    YandexWeatherReplayTransport.BASE_URL, bridgeConfig.endpoint, bridgeConfig.forecastDays,
+                    bridgeConfig.forecastHours);
+        }
+        // every key brings its own daily quota
+        refreshScheduler.setRequestsPerDay(bridgeConfig.refreshInterval * apiKeys.size());
+        // replayed requests are counted apart, so a load test doesn't use up the real quota of the keys
+        String quotaPrefix = getThing().getUID().getAsString().replace(':', '_')
+                + (bridgeConfig.replayDirectory.isBlank() ? "" : "_replay");
+        YandexWeatherKeyPool keyPool = new YandexWeatherKeyPool(apiKeys,
+                Path.of(OpenHAB.getUserDataFolder(), BINDING_ID, "quota"), quotaPrefix, bridgeConfig.refreshInterval);
+        this.keyPool = keyPool;
+        snapshotStore = new YandexWeatherSnapshotStore(Path.of(OpenHAB.getUserDataFolder(), BINDING_ID, "snapshots",
+                getThing().getUID().getAsString().replace(':', '_')));
+        fetchExecutor.setMaxConcurrentRequests(bridgeConfig.maxConcurrentRequests);
+        circuitBreaker.reset();
+        List<YandexWeatherHandler> handlers = new ArrayList<>(handlerTiles.keySet());
+        weatherService.unsubscribeAll(this);
+        tileSubscriptions.clear();
+        handlerTiles.clear();
+        handlers.forEach(this::registerYandexWeatherListener);
+        scheduleNextRefresh();
+        updateStatus(ThingStatus.ONLINE);
+        updateQuota(keyPool, System.currentTimeMillis());
+        synchronized (this) {
+            ScheduledFuture<?> metricsJob = this.metricsJob;
+            if (metricsJob != null) {
+                metricsJob.cancel(false);
+            }
+            this.metricsJob = scheduler.scheduleWithFixedDelay(this::updateMetrics, METRICS_INTERVAL_SECONDS,
+                    METRICS_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    private synchronized void scheduleNextRefresh() {
         ScheduledFuture<?> refreshPollingJob = this.refreshPollingJob;
-        if (refreshPollingJob == null || refreshPollingJob.isCancelled()) {
-            refreshPollingJob = scheduler.scheduleWithFixedDelay(new Runnable() {
-                @Override
-                public void run() {
-                    refresh();
-                }
-            }, 0, 1000, TimeUnit.MILLISECONDS);
+        if (refreshPollingJob != null) {
+            refreshPollingJob.cancel(false);
+        }
+        long deadline = refreshScheduler.nextDeadline();
+        if (deadline == YandexWeatherRefreshScheduler.NO_DEADLINE) {
+            refreshPollingJob = null;
+        } else {
+            long delay = Math.max(0, deadline - System.currentTimeMillis());
+            refreshPollingJob = scheduler.schedule(this::refresh, delay, TimeUnit.MILLISECONDS);
         }
         this.refreshPollingJob = refreshPollingJob;
-        updateStatus(ThingStatus.ONLINE);
     }
 
     private void refresh() {
-        YandexWeatherConfiguration bridgeConfig = this.bridgeConfig;
+        YandexWeatherApiClient apiClient = this.apiClient;
+        YandexWeatherKeyPool keyPool = this.keyPool;
         long now = System.currentTimeMillis();
-        if (bridgeConfig != null) {
-            final Map<String, YandexWeatherHandler> locationsHandlerMap = this.locationsHandlerMap;
-            if (locationsHandlerMap != null && !(locationsHandlerMap.isEmpty())) {
-                if (bridgeConfig.refreshInterval != 0) {
-                    int refreshPerHour = 86400000 / (bridgeConfig.refreshInterval / locationsHandlerMap.size());
-                    if (now >= (lastRefresh + refreshPerHour)) {
-                        locationsHandlerMap.forEach((k, v) -> {
-                            String[] location = v.getThing().getConfiguration().get("location").toString().split(",");
-                            if (location.length == 2) {
-                                String lat = location[0];
-                                String lon = location[1];
-                                // String URL = "http://localhost/sec/?lat=" + lat + "&lon=" + lon;
-                                String URL = "https://api.weather.yandex.ru/v2/informers?lat=" + lat + "&lon=" + lon;
-                                // String URL = "https://api.weather.yandex.ru/v2/informers?lat=55.75396&lon=37.620393";
-                                try {
-                                    java.net.URL urlreq = new URL(URL);
-                                    HttpURLConnection con;
-                                    con = (HttpURLConnection) urlreq.openConnection();
-                                    // logger.info("URL: {}", URL);
-                                    con.setRequestMethod("GET");
-                                    con.setReadTimeout(1500);
-                                    con.setConnectTimeout(1500);
-                                    con.setRequestProperty("Accept", "application/json");
-                                    con.setRequestProperty("Content-Type", "application/json");
-                                    con.setRequestProperty("X-Yandex-API-Key", bridgeConfig.api);
-                                    BufferedReader in = new BufferedReader(new InputStreamReader(con.getInputStream()));
-                                    String inputLine;
-                                    StringBuilder response = new StringBuilder();
-                                    while ((inputLine = in.readLine()) != null) {
-                                        response.append(inputLine);
-                                    }
-                                    in.close();
-                                    YandexWeatherJsonParser parser = new YandexWeatherJsonParser(
-                                            response.toString().trim());
-                                    v.updateValues(parser);
-                                    con.disconnect();
-                                } catch (IOException e) {
-                                    logger.debug("Connect to Yandex API {} error: {}", URL, e.getLocalizedMessage());
-                                }
-                            }
-                            lastRefresh = now;
-                        });
+        List<String> dueTiles = refreshScheduler.pollDue(now);
+        if (apiClient != null && keyPool != null) {
+            for (String key : dueTiles) {
+                TileSubscription subscription = tileSubscriptions.get(key);
+                if (subscription == null) {
+                    continue;
+                }
+                YandexWeatherSnapshot cached = cachedSnapshot(subscription, now);
+                if (cached != null) {
+                    fetchExecutor.submit(() -> {
+                        subscription.lastSnapshot = cached;
+                        subscription.stale = false;
+                        fanOut(subscription, cached);
+                    });
+                    continue;
+                }
+                if (!circuitBreaker.allowRequest(now)) {
+                    long retryAt = circuitBreaker.getRetryAt();
+                    if (retryAt > now) {
+                        // come back as soon as the circuit lets a probe through
+                        refreshScheduler.setDue(key, retryAt);
+                    }
+                    continue;
+                }
+                String apiKey = keyPool.acquire(key, now);
+                if (apiKey == null) {
+                    logger.debug("No API key has requests left, skipping {}", key);
+                    circuitBreaker.releaseProbe();
+                    long next = keyPool.nextAvailable(now);
+                    if (next > now && next != Long.MAX_VALUE) {
+                        refreshScheduler.setDue(key, next);
                     }
+                    continue;
                 }
+                boolean probe = circuitBreaker.getState() == YandexWeatherCircuitBreaker.State.HALF_OPEN;
+                fetchExecutor.submit(() -> refreshTile(apiClient, apiKey, subscription, probe));
+            }
+            if (!dueTiles.isEmpty()) {
+                updateQuota(keyPool, now);
+            }
+        }
+        scheduleNextRefresh();
+    }
+
+    /**
+     * @return a snapshot of the tile that needs no request: one the API declared fresh, or one another bridge
+     *         received less than half of this bridge's refresh period ago
+     */
+    private @Nullable YandexWeatherSnapshot cachedSnapshot(TileSubscription subscription, long now) {
+        YandexWeatherSnapshot cached = responseCache.getFresh(subscription.cacheKey, now);
+        if (cached == null) {
+            cached = responseCache.getRecent(subscription.cacheKey, now,
+                    refreshScheduler.period(subscription.tile.key()) / 2);
+        }
+        return cached;
+    }
+
+    private void updateQuota(YandexWeatherKeyPool keyPool, long now) {
+        updateState(CHANNEL_QUOTA_REMAINING, new DecimalType(keyPool.remaining(now)));
+        updateState(CHANNEL_QUOTA_USED, new DecimalType(keyPool.used(now)));
+    }
+
+    private void updateMetrics() {
+        updateState(CHANNEL_CACHE_HITS, new DecimalType(responseCache.getHits()));
+        updateState(CHANNEL_CACHE_MISSES, new DecimalType(responseCache.getMisses()));
+        updateState(CHANNEL_CACHE_REVALIDATIONS, new DecimalType(responseCache.getRevalidations()));
+        updateState(CHANNEL_FETCH_LATENCY_P50, latencyState(metrics.getFetchLatency(50)));
+        updateState(CHANNEL_FETCH_LATENCY_P95, latencyState(metrics.getFetchLatency(95)));
+        updateState(CHANNEL_BYTES_RECEIVED, new DecimalType(metrics.getBytesReceived()));
+        updateState(CHANNEL_DECODE_TIME, new DecimalType(metrics.getDecodeTime()));
+        updateState(CHANNEL_CHANNELS_UPDATED, new DecimalType(metrics.getChannelsUpdated()));
+        YandexWeatherIconCache iconCache = weatherService.getIconCache();
+        updateState(CHANNEL_ICON_CACHE_HITS, new DecimalType(iconCache.getHits()));
+        updateState(CHANNEL_ICON_CACHE_MISSES, new DecimalType(iconCache.getMisses()));
+        updateState(CHANNEL_ERRORS, new DecimalType(metrics.getErrors()));
+        updateState(CHANNEL_ERRORS_BY_CLASS, new StringType(metrics.getErrorsByClass()));
+    }
+
+    private static State latencyState(long latency) {
+        return latency < 0 ? UnDefType.UNDEF : new DecimalType(latency);
+    }
+
+    /**
+     * Requests the weather of a tile once and hands the decoded snapshot to every thing subscribed to it. A cached
+     * response is revalidated, so an unchanged one is neither downloaded nor decoded again.
+     *
+     * @param probe true if the request is the probe of the half-open circuit; it is given back on every way out that
+     *            doesn't report an outcome to the circuit breaker, so later requests aren't refused forever
+     */
+    private void refreshTile(YandexWeatherApiClient apiClient, String apiKey, TileSubscription subscription,
+            boolean probe) {
+        YandexWeatherTile tile = subscription.tile;
+        long now = System.currentTimeMillis();
+        ErrorClass failure = ErrorClass.TRANSPORT;
+        try {
+            HttpRequest.Builder request = apiClient.newWeatherRequest(apiKey, tile.lat(), tile.lon());
+            responseCache.addValidators(subscription.cacheKey, request);
+            long started = System.nanoTime();
+            HttpResponse<InputStream> response = apiClient.send(request.build());
+            metrics.recordFetch(tile.key(), System.nanoTime() - started);
+            YandexWeatherSnapshot snapshot;
+            InputStream body = response.body();
+            try (body) {
+                if (response.statusCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                    snapshot = responseCache.revalidated(subscription.cacheKey, response.headers(), now);
+                    if (snapshot == null) {
+                        logger.debug("Yandex API {} responded with HTTP 304 to an unconditional request",
+                                response.uri());
+                        circuitBreaker.onSuccess();
+                        return;
+                    }
+                } else if (response.statusCode() != HttpURLConnection.HTTP_OK) {
+                    handleErrorStatus(response, apiKey, tile.key(), now);
+                    return;
+                } else {
+                    failure = ErrorClass.DECODE;
+                    long decodeStarted = System.nanoTime();
+                    try (Reader in = new InputStreamReader(YandexWeatherApiClient.decodedBody(response, body),
+                            StandardCharsets.UTF_8)) {
+                        snapshot = YandexWeatherJsonParser.parse(in, apiClient.getForecastDays(),
+                                apiClient.getForecastHours());
+                    }
+                    metrics.recordDecode(System.nanoTime() - decodeStarted);
+                    responseCache.store(subscription.cacheKey, snapshot, response.headers(), now);
+                }
+            } finally {
+                metrics.recordBytesReceived(YandexWeatherApiClient.bytesReceived(body));
+            }
+            circuitBreaker.onSuccess();
+            if (circuitBreaker.getState() == YandexWeatherCircuitBreaker.State.CLOSED
+                    && getThing().getStatus() != ThingStatus.ONLINE) {
+                updateStatus(ThingStatus.ONLINE);
+            }
+            prefetchIcons(snapshot);
+            refreshScheduler.setWeight(tile.key(),
+                    YandexWeatherRefreshScheduler.weightOf(subscription.lastSnapshot, snapshot));
+            subscription.lastSnapshot = snapshot;
+            subscription.stale = false;
+            fanOut(subscription, snapshot);
+            YandexWeatherSnapshotStore snapshotStore = this.snapshotStore;
+            if (snapshotStore != null) {
+                snapshotStore.store(tile.key(), snapshot, now);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            logger.debug("Connect to Yandex API for {} error: {}", tile.key(), e.getLocalizedMessage());
+            metrics.recordError(failure);
+            onTransientFailure(now, e.getClass().getSimpleName());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (probe) {
+                circuitBreaker.releaseProbe();
+            }
+        }
+    }
+
+    /**
+     * Sorts a failed response by its status. A rejected key or an exhausted quota won't get better by retrying, so
+     * the request fails over to the other keys of the bridge, and the bridge goes offline once none is left; server
+     * errors and rate limiting back off through the circuit breaker. Other client errors only concern the requested
+     * location.
+     */
+    private void handleErrorStatus(HttpResponse<InputStream> response, String apiKey, String tileKey, long now) {
+        int status = response.statusCode();
+        logger.debug("Yandex API {} responded with HTTP {}", response.uri(), status);
+        YandexWeatherKeyPool keyPool = this.keyPool;
+        if (keyPool == null) {
+            return;
+        }
+        if (status == HttpURLConnection.HTTP_UNAUTHORIZED) {
+            metrics.recordError(ErrorClass.AUTH);
+            keyPool.disable(apiKey);
+            if (keyPool.hasEnabledKeys()) {
+                logger.warn("Yandex API rejected a key of bridge {}, using the other keys", getThing().getUID());
+                failOver(keyPool, tileKey, now);
+            } else {
+                circuitBreaker.halt();
+                updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR,
+                        "API key rejected (HTTP " + status + ")");
+            }
+        } else if (status == HttpURLConnection.HTTP_FORBIDDEN) {
+            // the API answers 403 when the daily limit of the key is reached
+            metrics.recordError(ErrorClass.QUOTA);
+            keyPool.exhaust(apiKey, now);
+            if (keyPool.remaining(now) > 0) {
+                failOver(keyPool, tileKey, now);
+            } else {
+                long retryAt = keyPool.nextAvailable(now);
+                circuitBreaker.openUntil(retryAt);
+                updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.DUTY_CYCLE,
+                        "Request quota exhausted, retrying at " + formatTime(retryAt));
+            }
+        } else if (status == HTTP_TOO_MANY_REQUESTS) {
+            metrics.recordError(ErrorClass.RATE_LIMIT);
+            long retryAt = retryAfter(response, now);
+            if (retryAt > now) {
+                circuitBreaker.openUntil(retryAt);
+                updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.DUTY_CYCLE,
+                        "Rate limited, retrying at " + formatTime(retryAt));
+            } else {
+                onTransientFailure(now, "HTTP " + status);
+            }
+        } else if (status >= HttpURLConnection.HTTP_INTERNAL_ERROR) {
+            metrics.recordError(ErrorClass.SERVER);
+            onTransientFailure(now, "HTTP " + status);
+        } else {
+            // the API answered, so it is available even if it can't serve this location
+            metrics.recordError(ErrorClass.CLIENT);
+            circuitBreaker.onSuccess();
+        }
+    }
+
+    /**
+     * Requests the tile again with another key as soon as one may send a request.
+     */
+    private void failOver(YandexWeatherKeyPool keyPool, String tileKey, long now) {
+        refreshScheduler.setDue(tileKey, Math.max(now, keyPool.nextAvailable(now)));
+        scheduleNextRefresh();
+    }
+
+    private void onTransientFailure(long now, String reason) {
+        if (circuitBreaker.onFailure(now)) {
+            long retryAt = circuitBreaker.getRetryAt();
+            logger.warn("Yandex API keeps failing ({}), pausing requests until {}", reason, formatTime(retryAt));
+            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR,
+                    "Yandex API unavailable (" + reason + "), retrying at " + formatTime(retryAt));
+        }
+    }
+
+    /**
+     * @return the time in ms given by the {@code Retry-After} header, or 0 if there is none
+     */
+    private static long retryAfter(HttpResponse<InputStream> response, long now) {
+        Optional<String> retryAfter = response.headers().firstValue("Retry-After");
+        if (retryAfter.isEmpty()) {
+            return 0;
+        }
+        String value = retryAfter.get().trim();
+        try {
+            return now + TimeUnit.SECONDS.toMillis(Long.parseLong(value));
+        } catch (NumberFormatException e) {
+            try {
+                return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            } catch (DateTimeParseException e1) {
+                return 0;
+            }
+        }
+    }
+
+    private static String formatTime(long time) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneId.systemDefault())
+                .truncatedTo(ChronoUnit.SECONDS).toString();
+    }
+
+    private void fanOut(TileSubscription subscription, YandexWeatherSnapshot snapshot) {
+        State latency = latencyState(metrics.getFetchLatency(subscription.tile.key(), 95));
+        int updated = 0;
+        for (YandexWeatherHandler handler : subscription.handlers) {
+            updated += handler.updateValues(snapshot, false);
+            handler.updateFetchLatency(latency);
+        }
+        metrics.recordChannelsUpdated(updated);
+    }
 
+    /**
+     * Starts loading the icons of a fresh snapshot, so the downloads overlap with the channel updates.
+     */
+    private void prefetchIcons(YandexWeatherSnapshot snapshot) {
+        Set<String> icons = new HashSet<>();
+        String icon = snapshot.getFact().getIcon();
+        if (icon != null) {
+            icons.add(icon);
+        }
+        for (YandexWeatherForecastPart part : snapshot.getParts()) {
+            icon = part.getIcon();
+            if (icon != null) {
+                icons.add(icon);
             }
         }
+        weatherService.getIconCache().prefetch(icons);
+    }
+
+    /**
+     * @return the weather icon with the given code from the icon cache shared by all bridges, completed on the
+     *         binding thread pool once it is available
+     */
+    public CompletableFuture<RawType> getIconAsync(String code) {
+        return weatherService.getIconCache().getIconAsync(code);
     }
 
     @Override
@@ -134,40 +490,117 @@ public class YandexWeatherBridgeHandler extends BaseBridgeHandler {
 
     @Override
     public void dispose() {
-        ScheduledFuture<?> refreshPollingJob = this.refreshPollingJob;
-        if (refreshPollingJob != null && !refreshPollingJob.isCancelled()) {
-            refreshPollingJob.cancel(true);
-            refreshPollingJob = null;
+        refreshScheduler.clear();
+        fetchExecutor.cancelAll();
+        weatherService.unsubscribeAll(this);
+        circuitBreaker.reset();
+        metrics.clear();
+        YandexWeatherKeyPool keyPool = this.keyPool;
+        if (keyPool != null) {
+            keyPool.flush();
+        }
+        apiClient = null;
+        this.keyPool = null;
+        snapshotStore = null;
+        synchronized (this) {
+            ScheduledFuture<?> refreshPollingJob = this.refreshPollingJob;
+            if (refreshPollingJob != null && !refreshPollingJob.isCancelled()) {
+                refreshPollingJob.cancel(true);
+                refreshPollingJob = null;
+            }
+            this.refreshPollingJob = refreshPollingJob;
+            ScheduledFuture<?> metricsJob = this.metricsJob;
+            if (metricsJob != null) {
+                metricsJob.cancel(false);
+                this.metricsJob = null;
+            }
         }
-        this.refreshPollingJob = refreshPollingJob;
         super.dispose();
     }
 
+    /**
+     * Subscribes the thing to the tile of its location. Things in the same tile share one request per refresh. The
+     * registry is updated per tile with {@link ConcurrentHashMap#compute}, so things can come and go while a refresh
+     * is running without either side waiting for the other.
+     */
     public void registerYandexWeatherListener(YandexWeatherHandler yandexWeatherHandler) {
         String location = yandexWeatherHandler.getThing().getConfiguration().get("location").toString();
-        Map<String, YandexWeatherHandler> locationsHandlerMap = this.locationsHandlerMap;
-        if (locationsHandlerMap != null) {
-            if (locationsHandlerMap.get(location) != null) {
-                updateThingHandlerStatus(yandexWeatherHandler, ThingStatus.OFFLINE,
-                        ThingStatusDetail.CONFIGURATION_ERROR, "Location");
-            } else {
-                locationsHandlerMap.put(location, yandexWeatherHandler);
-                updateThingHandlerStatus(yandexWeatherHandler, ThingStatus.ONLINE);
+        YandexWeatherConfiguration bridgeConfig = this.bridgeConfig;
+        int precision = bridgeConfig != null ? bridgeConfig.coordinatePrecision : DEFAULT_COORDINATE_PRECISION;
+        YandexWeatherTile tile = YandexWeatherTile.of(location, precision);
+        if (tile == null) {
+            updateThingHandlerStatus(yandexWeatherHandler, ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR,
+                    "Location");
+            return;
+        }
+        if (handlerTiles.putIfAbsent(yandexWeatherHandler, tile) != null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        TileSubscription subscription = tileSubscriptions.compute(tile.key(), (key, current) -> {
+            TileSubscription result = current != null ? current : subscribe(tile, now);
+            result.handlers.add(yandexWeatherHandler);
+            return result;
+        });
+        updateThingHandlerStatus(yandexWeatherHandler, ThingStatus.ONLINE);
+        YandexWeatherSnapshot snapshot = subscription.lastSnapshot;
+        if (snapshot != null) {
+            prefetchIcons(snapshot);
+            yandexWeatherHandler.updateValues(snapshot, subscription.stale);
+        }
+        scheduleNextRefresh();
+    }
+
+    /**
+     * Sets up a tile that got its first thing: restores its last snapshot and adds it to the refresh schedule.
+     */
+    private TileSubscription subscribe(YandexWeatherTile tile, long now) {
+        YandexWeatherApiClient apiClient = this.apiClient;
+        TileSubscription subscription = new TileSubscription(tile,
+                apiClient != null ? apiClient.cacheKey(tile.key()) : tile.key());
+        weatherService.subscribe(subscription.cacheKey, this);
+        YandexWeatherSnapshotStore snapshotStore = this.snapshotStore;
+        StoredSnapshot stored = snapshotStore != null ? snapshotStore.load(tile.key()) : null;
+        if (stored != null) {
+            subscription.lastSnapshot = stored.snapshot();
+            subscription.stale = true;
+        }
+        metrics.addTile(tile.key());
+        YandexWeatherKeyPool keyPool = this.keyPool;
+        if (keyPool != null) {
+            keyPool.assign(tile.key());
+        }
+        if (refreshScheduler.add(tile.key(), now) && stored != null) {
+            // the stored snapshot is still within its refresh window, skip the first request
+            long due = stored.fetchedAt() + refreshScheduler.period(tile.key());
+            if (due > now) {
+                refreshScheduler.setDue(tile.key(), due);
             }
-            this.locationsHandlerMap = locationsHandlerMap;
         }
+        return subscription;
     }
 
     public void unregisterYandexWeatherListener(YandexWeatherHandler yandexWeatherHandler) {
-        String location = yandexWeatherHandler.getThing().getConfiguration().get("location").toString();
-        Map<String, YandexWeatherHandler> locationsHandlerMap = this.locationsHandlerMap;
-        if (locationsHandlerMap != null) {
-            if (locationsHandlerMap.get(location) != null) {
-                locationsHandlerMap.remove(location);
-                updateThingHandlerStatus(yandexWeatherHandler, ThingStatus.OFFLINE);
-            }
-            this.locationsHandlerMap = locationsHandlerMap;
+        YandexWeatherTile tile = handlerTiles.remove(yandexWeatherHandler);
+        if (tile == null) {
+            return;
         }
+        tileSubscriptions.computeIfPresent(tile.key(), (key, subscription) -> {
+            subscription.handlers.remove(yandexWeatherHandler);
+            if (!subscription.handlers.isEmpty()) {
+                return subscription;
+            }
+            weatherService.unsubscribe(subscription.cacheKey, this);
+            metrics.removeTile(key);
+            refreshScheduler.remove(key);
+            YandexWeatherKeyPool keyPool = this.keyPool;
+            if (keyPool != null) {
+                keyPool.release(key);
+            }
+            return null;
+        });
+        updateThingHandlerStatus(yandexWeatherHandler, ThingStatus.OFFLINE);
+        scheduleNextRefresh();
     }
 
     private void updateThingHandlerStatus(YandexWeatherHandler yandexWeatherHandler, ThingStatus status,
@@ -178,4 +611,18 @@ public class YandexWeatherBridgeHandler extends BaseBridgeHandler {
     private void updateThingHandlerStatus(YandexWeatherHandler thingHandler, ThingStatus status) {
         thingHandler.updateStatus(status);
     }
+
+    private static class TileSubscription {
+        private final YandexWeatherTile tile;
+        /** Key of the tile's responses in the shared response cache */
+        private final String cacheKey;
+        private final Set<YandexWeatherHandler> handlers = new CopyOnWriteArraySet<>();
+        private volatile @Nullable YandexWeatherSnapshot lastSnapshot;
+        private volatile boolean stale;
+
+        TileSubscription(YandexWeatherTile tile, String cacheKey) {
+            this.tile = tile;
+            this.cacheKey = cacheKey;
+        }
+    }
 }
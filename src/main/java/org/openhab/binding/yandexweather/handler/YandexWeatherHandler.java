@@ -14,19 +14,22 @@ package org.openhab.binding.yandexweather.handler;
 
 import static org.openhab.binding.yandexweather.internal.YandexWeatherBindingConstants.*;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.yandexweather.internal.YandexWeatherChannelExtractors;
+import org.openhab.binding.yandexweather.internal.YandexWeatherChannelExtractors.SeriesExtractor;
 import org.openhab.binding.yandexweather.internal.YandexWeatherConfiguration;
-import org.openhab.binding.yandexweather.internal.YandexWeatherJsonParser;
-import org.openhab.core.library.types.DateTimeType;
-import org.openhab.core.library.types.DecimalType;
-import org.openhab.core.library.types.RawType;
-import org.openhab.core.library.types.StringType;
+import org.openhab.binding.yandexweather.internal.YandexWeatherDerivedMetrics;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherForecastSeries;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherSnapshot;
+import org.openhab.core.library.types.OnOffType;
 import org.openhab.core.thing.Bridge;
 import org.openhab.core.thing.Channel;
 import org.openhab.core.thing.ChannelUID;
@@ -36,6 +39,8 @@ import org.openhab.core.thing.ThingStatusDetail;
 import org.openhab.core.thing.binding.BaseThingHandler;
 import org.openhab.core.thing.binding.ThingHandler;
 import org.openhab.core.types.Command;
+import org.openhab.core.types.State;
+import org.openhab.core.types.TimeSeries;
 import org.openhab.core.types.UnDefType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -52,6 +57,17 @@ public class YandexWeatherHandler extends BaseThingHandler {
     private @Nullable YandexWeatherConfiguration config;
     @Nullable
     YandexWeatherBridgeHandler bridgeDeviceHandler;
+    private volatile List<ChannelDispatch> dispatchTable = List.of();
+    private volatile List<IconDispatch> iconTable = List.of();
+    private volatile List<SeriesDispatch> seriesTable = List.of();
+    private volatile @Nullable YandexWeatherSnapshot lastSeriesSnapshot;
+    private volatile @Nullable ChannelUID staleChannel;
+    private volatile @Nullable ChannelUID fetchLatencyChannel;
+    private final YandexWeatherDerivedMetrics derivedMetrics = new YandexWeatherDerivedMetrics();
+    private final Map<ChannelUID, State> publishedStates = new ConcurrentHashMap<>();
+    private final Map<ChannelUID, String> publishedIcons = new ConcurrentHashMap<>();
+    private final Map<ChannelUID, String> requestedIcons = new ConcurrentHashMap<>();
+    private long lastHeartbeat;
 
     public YandexWeatherHandler(Thing thing) {
         super(thing);
@@ -63,6 +79,7 @@ public class YandexWeatherHandler extends BaseThingHandler {
         if (bridgeDeviceHandler != null) {
             bridgeDeviceHandler.unregisterYandexWeatherListener(this);
         }
+        requestedIcons.clear();
         super.dispose();
     }
 
@@ -70,8 +87,29 @@ public class YandexWeatherHandler extends BaseThingHandler {
     public void handleCommand(ChannelUID channelUID, Command command) {
     }
 
+    @Override
+    public void channelLinked(ChannelUID channelUID) {
+        publishedStates.remove(channelUID);
+        publishedIcons.remove(channelUID);
+        requestedIcons.remove(channelUID);
+        buildDispatchTable();
+        super.channelLinked(channelUID);
+    }
+
+    @Override
+    public void channelUnlinked(ChannelUID channelUID) {
+        buildDispatchTable();
+        super.channelUnlinked(channelUID);
+    }
+
     @Override
     public void initialize() {
+        publishedStates.clear();
+        publishedIcons.clear();
+        requestedIcons.clear();
+        derivedMetrics.clear();
+        lastHeartbeat = System.currentTimeMillis();
+        buildDispatchTable();
         config = getConfigAs(YandexWeatherConfiguration.class);
         YandexWeatherConfiguration config = this.config;
         if (config != null) {
@@ -128,431 +166,185 @@ public class YandexWeatherHandler extends BaseThingHandler {
         super.updateStatus(status);
     }
 
-    public void updateValues(YandexWeatherJsonParser parser) {
-        logger.debug("Refreshing YandexWeather channels, thing {}", getThing().getLabel());
+    /**
+     * Resolves every linked channel to its extractor once, so a refresh does no channel id comparisons.
+     */
+    private void buildDispatchTable() {
+        List<ChannelDispatch> dispatchTable = new ArrayList<>();
+        List<IconDispatch> iconTable = new ArrayList<>();
+        List<SeriesDispatch> seriesTable = new ArrayList<>();
+        ChannelUID staleChannel = null;
+        ChannelUID fetchLatencyChannel = null;
         for (Channel channel : getThing().getChannels()) {
-            if (isLinked(channel.getUID().getId())) {
-                if (channel.getUID().getIdWithoutGroup().equals(CHANNEL_DATETIME)) {
-                    try {
-                        updateState(channel.getUID().getId(), DateTimeType.valueOf(parser.getDayTime()));
-                    } catch (Exception er) {
-                        logger.debug("CHANNEL_DATETIME channel update error {}", er.toString());
-                    }
-                } else if (channel.getUID().getIdWithoutGroup().equals(CHANNEL_TEMPERATURE)) {
-                    try {
-                        updateState(channel.getUID().getId(), DecimalType.valueOf(parser.getFactTemperature()));
-                    } catch (Exception er) {
-                        logger.debug("CHANNEL_FACTTEMPERATURE channel update error {}", er.toString());
-                    }
-                } else if (channel.getUID().getIdWithoutGroup().equals(CHANNEL_FEELSLIKE)) {
-                    try {
-                        DecimalType feelslike = new DecimalType();
-                        String group = channel.getUID().getGroupId();
-                        if (group != null) {
-                            switch (group) {
-                                case "current":
-                                    feelslike = DecimalType.valueOf(parser.getFactFeelsLike());
-                                    break;
-                                case "forecastNext":
-                                    feelslike = DecimalType.valueOf(parser.getForecastNextFeelsLike());
-                                    break;
-                                case "forecastFuture":
-                                    feelslike = DecimalType.valueOf(parser.getForecastFutureFeelsLike());
-                                    break;
-                            }
-                            updateState(channel.getUID().getId(), feelslike);
-                        }
-                    } catch (Exception er) {
-                        logger.debug("CHANNEL_FACTFEELSLIKE channel update error {}", er.toString());
-                    }
-                } else if (channel.getUID().getIdWithoutGroup().equals(CHANNEL_TEMPWATER)) {
-                    try {
-                        String group = channel.getUID().getGroupId();
-                        if ((parser.getFactTempWater().equals("")) || (parser.getForecastNextTempWater().equals(""))
-                                || (parser.getForecastFutureTempWater().equals(""))) {
-                            updateState(channel.getUID().getId(), UnDefType.NULL);
-                        } else {
-                            var tempwater = new DecimalType();
-                            if (group != null) {
-                                switch (group) {
-                                    case "current":
-                                        tempwater = DecimalType.valueOf(parser.getFactTempWater());
-                                        break;
-                                    case "forecastNext":
-                                        tempwater = DecimalType.valueOf(parser.getForecastNextTempWater());
-                                        break;
-                                    case "forecastFuture":
-                                        tempwater = DecimalType.valueOf(parser.getForecastFutureTempWater());
-                                        break;
-                                }
-                            }
-                            updateState(channel.getUID().getId(), tempwater);
-                        }
+            ChannelUID channelUID = channel.getUID();
+            if (!isLinked(channelUID)) {
+                continue;
+            }
+            String group = channelUID.getGroupId();
+            String id = channelUID.getIdWithoutGroup();
+            SeriesExtractor series = YandexWeatherChannelExtractors.forSeries(group, id);
+            if (series != null) {
+                seriesTable.add(new SeriesDispatch(channelUID, series));
+            }
+            if (CHANNEL_STALE.equals(id)) {
+                staleChannel = channelUID;
+            } else if (CHANNEL_FETCH_LATENCY.equals(id)) {
+                fetchLatencyChannel = channelUID;
+            } else if (CHANNEL_ICON.equals(id)) {
+                Function<YandexWeatherSnapshot, @Nullable String> icon = YandexWeatherChannelExtractors.forIcon(group);
+                if (icon != null) {
+                    iconTable.add(new IconDispatch(channelUID, icon));
+                }
+            } else {
+                Function<YandexWeatherSnapshot, State> extractor = YandexWeatherChannelExtractors.forChannel(group, id);
+                if (extractor == null) {
+                    extractor = YandexWeatherChannelExtractors.forDerived(group, id, derivedMetrics);
+                }
+                if (extractor != null) {
+                    dispatchTable.add(new ChannelDispatch(channelUID, extractor));
+                }
+            }
+        }
+        this.dispatchTable = List.copyOf(dispatchTable);
+        this.iconTable = List.copyOf(iconTable);
+        this.seriesTable = List.copyOf(seriesTable);
+        lastSeriesSnapshot = null;
+        this.staleChannel = staleChannel;
+        this.fetchLatencyChannel = fetchLatencyChannel;
+    }
 
-                    } catch (Exception er) {
-                        logger.debug("CHANNEL_TEMPWATER channel update error {}", er.toString());
-                    }
-                } else if (channel.getUID().getIdWithoutGroup().equals(CHANNEL_ICON)) {
-                    try {
-                        String icon = "";
-                        String group = channel.getUID().getGroupId();
-                        if (group != null) {
-                            switch (group) {
-                                case "current":
-                                    icon = parser.getFactIcon();
-                                    break;
-                                case "forecastNext":
-                                    icon = parser.getForecastNextIcon();
-                                    break;
-                                case "forecastFuture":
-                                    icon = parser.getForecastFutureIcon();
-                                    break;
-                            }
-                        }
-                        URL url = new URL(icon);
-                        BufferedReader read = new BufferedReader(new InputStreamReader(url.openStream()));
+    /**
+     * @param stale true if the snapshot was restored from disk and has not been refreshed from the API yet
+     * @return the number of channels updated, not counting icons that are still loading
+     */
+    public int updateValues(YandexWeatherSnapshot snapshot, boolean stale) {
+        logger.debug("Refreshing YandexWeather channels, thing {}", getThing().getLabel());
+        boolean heartbeat = isHeartbeatDue();
+        // kept up to date even while no derived channel is linked, so a newly linked one has its history
+        derivedMetrics.update(snapshot);
+        int updated = 0;
+        ChannelUID staleChannel = this.staleChannel;
+        if (staleChannel != null && publish(staleChannel, OnOffType.from(stale), heartbeat)) {
+            updated++;
+        }
+        for (ChannelDispatch dispatch : dispatchTable) {
+            if (publish(dispatch.channelUID(), dispatch.extractor().apply(snapshot), heartbeat)) {
+                updated++;
+            }
+        }
+        for (IconDispatch dispatch : iconTable) {
+            String icon = dispatch.icon().apply(snapshot);
+            if (icon == null) {
+                requestedIcons.remove(dispatch.channelUID());
+                publishedIcons.remove(dispatch.channelUID());
+                if (publish(dispatch.channelUID(), UnDefType.UNDEF, heartbeat)) {
+                    updated++;
+                }
+            } else if (heartbeat || !icon.equals(publishedIcons.get(dispatch.channelUID()))) {
+                requestIcon(dispatch.channelUID(), icon, heartbeat);
+            }
+        }
+        if (heartbeat || snapshot != lastSeriesSnapshot) {
+            lastSeriesSnapshot = snapshot;
+            updated += sendForecasts(snapshot);
+        }
+        return updated;
+    }
 
-                        StringBuilder stringBuilder = new StringBuilder();
+    /**
+     * @param latency the fetch latency of the thing's location as reported by the bridge
+     */
+    public void updateFetchLatency(State latency) {
+        ChannelUID fetchLatencyChannel = this.fetchLatencyChannel;
+        if (fetchLatencyChannel != null) {
+            publish(fetchLatencyChannel, latency, false);
+        }
+    }
 
-                        String inputLine;
-                        while ((inputLine = read.readLine()) != null) {
-                            stringBuilder.append(inputLine);
-                            stringBuilder.append(System.lineSeparator());
-                        }
-                        read.close();
-                        RawType rt = new RawType(stringBuilder.toString().trim().getBytes(StandardCharsets.UTF_8),
-                                "image/svg+xml");
-                        updateState(channel.getUID().getId(), rt);
+    /**
+     * Sends the forecast of every linked series channel in one batch. The joined forecast is built once and shared
+     * by all channels that use it.
+     *
+     * @return the number of channels a forecast was sent to
+     */
+    private int sendForecasts(YandexWeatherSnapshot snapshot) {
+        List<SeriesDispatch> seriesTable = this.seriesTable;
+        if (seriesTable.isEmpty()) {
+            return 0;
+        }
+        int sent = 0;
+        YandexWeatherForecastSeries hourly = snapshot.getHourly();
+        YandexWeatherForecastSeries forecast = seriesTable.stream().anyMatch(d -> d.series().forecast())
+                ? YandexWeatherChannelExtractors.forecast(snapshot)
+                : YandexWeatherForecastSeries.EMPTY;
+        for (SeriesDispatch dispatch : seriesTable) {
+            TimeSeries timeSeries = YandexWeatherChannelExtractors
+                    .timeSeries(dispatch.series().forecast() ? forecast : hourly, dispatch.series().column());
+            if (timeSeries.size() > 0) {
+                sendTimeSeries(dispatch.channelUID(), timeSeries);
+                sent++;
+            }
+        }
+        return sent;
+    }
 
-                    } catch (Exception er) {
-                        logger.debug("CHANNEL_ICON channel update error {}", er.toString());
-                    }
-                } else if (channel.getUID().getIdWithoutGroup().equals(CHANNEL_ICON_URL)) {
-                    try {
-                        String icon = "";
-                        String group = channel.getUID().getGroupId();
-                        if (group != null) {
-                            switch (group) {
-                                case "current":
-                                    icon = parser.getFactIcon();
-                                    break;
-                                case "forecastNext":
-                                    icon = parser.getForecastNextIcon();
-                                    break;
-                                case "forecastFuture":
-                                    icon = parser.getForecastFutureIcon();
-                                    break;
-                            }
-                        }
-                        updateState(channel.getUID().getId(), StringType.valueOf(icon));
-                    } catch (Exception er) {
-                        logger.debug("CHANNEL_ICON_URL channel update error {}", er.toString());
-                    }
-                } else if (channel.getUID().getIdWithoutGroup().equals(CHANNEL_CONDITION)) {
-                    try {
-                        StringType condition = new StringType();
-                        String group = channel.getUID().getGroupId();
-                        if (group != null) {
-                            switch (group) {
-                                case "current":
-                                    condition = StringType.valueOf(parser.getFactCondition());
-                                    break;
-                                case "forecastNext":
-                                    condition = StringType.valueOf(parser.getForecastNextCondition());
-                                    break;
-                                case "forecastFuture":
-                                    condition = StringType.valueOf(parser.getForecastFutureCondition());
-                                    break;
-                            }
-                        }
-                        updateState(channel.getUID().getId(), condition);
-                    } catch (Exception er) {
-                        logger.debug("CHANNEL_FACTCONDITION channel update error {}", er.toString());
-                    }
-                } else if (channel.getUID().getIdWithoutGroup().equals(CHANNEL_WINDSPEED)) {
-                    try {
-                        DecimalType windSpeed = new DecimalType();
-                        String group = channel.getUID().getGroupId();
-                        if (group != null) {
-                            switch (group) {
-                                case "current":
-                                    windSpeed = DecimalType.valueOf(parser.getFactWindSpeed());
-                                    break;
-                                case "forecastNext":
-                                    windSpeed = DecimalType.valueOf(parser.getForecastNextWindSpeed());
-                                    break;
-                                case "forecastFuture":
-                                    windSpeed = DecimalType.valueOf(parser.getForecastFutureWindSpeed());
-                                    break;
-                            }
-                        }
-                        updateState(channel.getUID().getId(), windSpeed);
-                    } catch (Exception er) {
-                        logger.debug("CHANNEL_FACTWINDSPEED channel update error {}", er.toString());
-                    }
-                } else if (channel.getUID().getIdWithoutGroup().equals(CHANNEL_WINDDIR)) {
-                    try {
-                        StringType windDir = new StringType();
-                        String group = channel.getUID().getGroupId();
-                        if (group != null) {
-                            switch (group) {
-                                case "current":
-                                    windDir = StringType.valueOf(parser.getFactWindDir());
-                                    break;
-                                case "forecastNext":
-                                    windDir = StringType.valueOf(parser.getForecastNextWindDir());
-                                    break;
-                                case "forecastFuture":
-                                    windDir = StringType.valueOf(parser.getForecastFutureWindDir());
-                                    break;
-                            }
-                        }
-                        updateState(channel.getUID().getId(), windDir);
-                    } catch (Exception er) {
-                        logger.debug("CHANNEL_FACTWINDDIR channel update error {}", er.toString());
-                    }
-                } else if (channel.getUID().getIdWithoutGroup().equals(CHANNEL_PRESSUREMM)) {
-                    try {
-                        DecimalType pressure = new DecimalType();
-                        String group = channel.getUID().getGroupId();
-                        if (group != null) {
-                            switch (group) {
-                                case "current":
-                                    pressure = DecimalType.valueOf(parser.getFactPressureMM());
-                                    break;
-                                case "forecastNext":
-                                    pressure = DecimalType.valueOf(parser.getForecastNextPressureMM());
-                                    break;
-                                case "forecastFuture":
-                                    pressure = DecimalType.valueOf(parser.getForecastFuturePressureMM());
-                                    break;
-                            }
-                        }
-                        updateState(channel.getUID().getId(), pressure);
-                    } catch (Exception er) {
-                        logger.debug("CHANNEL_FACTPRESSUREMM channel update error {}", er.toString());
-                    }
-                } else if (channel.getUID().getIdWithoutGroup().equals(CHANNEL_HUMIDITY)) {
-                    try {
-                        DecimalType humidity = new DecimalType();
-                        String group = channel.getUID().getGroupId();
-                        if (group != null) {
-                            switch (group) {
-                                case "current":
-                                    humidity = DecimalType.valueOf(parser.getFactHumidity());
-                                    break;
-                                case "forecastNext":
-                                    humidity = DecimalType.valueOf(parser.getForecastNextHumidity());
-                                    break;
-                                case "forecastFuture":
-                                    humidity = DecimalType.valueOf(parser.getForecastFutureHumidity());
-                                    break;
-                            }
-                        }
-                        updateState(channel.getUID().getId(), humidity);
-                    } catch (Exception er) {
-                        logger.debug("CHANNEL_FACTHUMIDITY channel update error {}", er.toString());
-                    }
-                } else if (channel.getUID().getIdWithoutGroup().equals(CHANNEL_DAYTIME)) {
-                    try {
-                        StringType daytime = new StringType();
-                        String group = channel.getUID().getGroupId();
-                        if (group != null) {
-                            switch (group) {
-                                case "current":
-                                    daytime = StringType.valueOf(parser.getFactDaytime());
-                                    break;
-                                case "forecastNext":
-                                    daytime = StringType.valueOf(parser.getForecastNextDaytime());
-                                    break;
-                                case "forecastFuture":
-                                    daytime = StringType.valueOf(parser.getForecastFutureDaytime());
-                                    break;
-                            }
-                        }
-                        updateState(channel.getUID().getId(), daytime);
-                    } catch (Exception er) {
-                        logger.debug("CHANNEL_FACTDAYTIME channel update error {}", er.toString());
-                    }
-                } else if (channel.getUID().getIdWithoutGroup().equals(CHANNEL_SEASON)) {
-                    try {
-                        updateState(channel.getUID().getId(), StringType.valueOf(parser.getFactSeason()));
-                    } catch (Exception er) {
-                        logger.debug("CHANNEL_FACTSEASON channel update error {}", er.toString());
-                    }
-                } else if (channel.getUID().getIdWithoutGroup().equals(CHANNEL_WINDGUST)) {
-                    try {
-                        DecimalType windGust = new DecimalType();
-                        String group = channel.getUID().getGroupId();
-                        if (group != null) {
-                            switch (group) {
-                                case "current":
-                                    windGust = DecimalType.valueOf(parser.getFactWindGust());
-                                    break;
-                                case "forecastNext":
-                                    windGust = DecimalType.valueOf(parser.getForecastNextWindGust());
-                                    break;
-                                case "forecastFuture":
-                                    windGust = DecimalType.valueOf(parser.getForecastFutureWindGust());
-                                    break;
-                            }
-                        }
-                        updateState(channel.getUID().getId(), windGust);
-                    } catch (Exception er) {
-                        logger.debug("CHANNEL_FACTWINDGUST channel update error {}", er.toString());
-                    }
-                } else if (channel.getUID().getIdWithoutGroup().equals(CHANNEL_WEEKNO)) {
-                    try {
-                        updateState(channel.getUID().getId(), DecimalType.valueOf(parser.getForecastWeekNo()));
-                    } catch (Exception er) {
-                        logger.debug("CHANNEL_FORECASTWEEKNO channel update error {}", er.toString());
-                    }
-                } else if (channel.getUID().getIdWithoutGroup().equals(CHANNEL_SUNRISE)) {
-                    try {
-                        updateState(channel.getUID().getId(), DateTimeType.valueOf(parser.getForecastSunrise()));
-                    } catch (Exception er) {
-                        logger.debug("CHANNEL_FORECASTSUNRISE channel update error {}", er.toString());
-                    }
-                } else if (channel.getUID().getIdWithoutGroup().equals(CHANNEL_SUNSET)) {
-                    try {
-                        updateState(channel.getUID().getId(), DateTimeType.valueOf(parser.getForecastSunset()));
-                    } catch (Exception er) {
-                        logger.debug("CHANNEL_FORECASTSUNSET channel update error {}", er.toString());
-                    }
-                } else if (channel.getUID().getIdWithoutGroup().equals(CHANNEL_MOONCODE)) {
-                    try {
-                        updateState(channel.getUID().getId(), DecimalType.valueOf(parser.getForecastMoonCode()));
-                    } catch (Exception er) {
-                        logger.debug("CHANNEL_FORECASTMOONCODE channel update error {}", er.toString());
-                    }
-                } else if (channel.getUID().getIdWithoutGroup().equals(CHANNEL_PARTNAME)) {
-                    StringType partname = new StringType();
-                    String group = channel.getUID().getGroupId();
-                    if (group != null) {
-                        switch (group) {
-                            case "forecastNext":
-                                partname = StringType.valueOf(parser.getPartNameNext());
-                                break;
-                            case "forecastFuture":
-                                partname = StringType.valueOf(parser.getPartNameFuture());
-                                break;
-                        }
-                    }
-                    try {
-                        updateState(channel.getUID().getId(), partname);
-                    } catch (Exception er) {
-                        logger.debug("CHANNEL_PARTNAME channel update error {}", er.toString());
-                    }
-                } else if (channel.getUID().getIdWithoutGroup().equals(CHANNEL_TEMPMIN)) {
-                    DecimalType state = new DecimalType();
-                    String group = channel.getUID().getGroupId();
-                    if (group != null) {
-                        switch (group) {
-                            case "forecastNext":
-                                state = DecimalType.valueOf(parser.getTempMinNext());
-                                break;
-                            case "forecastFuture":
-                                state = DecimalType.valueOf(parser.getTempMinFuture());
-                                break;
-                        }
-                    }
-                    try {
-                        updateState(channel.getUID().getId(), state);
-                    } catch (Exception er) {
-                        logger.debug("CHANNEL_TEMPMIN channel update error {}", er.toString());
-                    }
-                } else if (channel.getUID().getIdWithoutGroup().equals(CHANNEL_TEMPMAX)) {
-                    DecimalType state = new DecimalType();
-                    String group = channel.getUID().getGroupId();
-                    if (group != null) {
-                        switch (group) {
-                            case "forecastNext":
-                                state = DecimalType.valueOf(parser.getTempMaxNext());
-                                break;
-                            case "forecastFuture":
-                                state = DecimalType.valueOf(parser.getTempMaxFuture());
-                                break;
-                        }
-                    }
-                    try {
-                        updateState(channel.getUID().getId(), state);
-                    } catch (Exception er) {
-                        logger.debug("CHANNEL_TEMPMAX channel update error {}", er.toString());
-                    }
-                } else if (channel.getUID().getIdWithoutGroup().equals(CHANNEL_TEMPAVG)) {
-                    DecimalType state = new DecimalType();
-                    String group = channel.getUID().getGroupId();
-                    if (group != null) {
-                        switch (group) {
-                            case "forecastNext":
-                                state = DecimalType.valueOf(parser.getTempAvgNext());
-                                break;
-                            case "forecastFuture":
-                                state = DecimalType.valueOf(parser.getTempAvgFuture());
-                                break;
-                        }
-                    }
-                    try {
-                        updateState(channel.getUID().getId(), state);
-                    } catch (Exception er) {
-                        logger.debug("CHANNEL_TEMPAVG channel update error {}", er.toString());
-                    }
-                } else if (channel.getUID().getIdWithoutGroup().equals(CHANNEL_PRECMM)) {
-                    DecimalType state = new DecimalType();
-                    String group = channel.getUID().getGroupId();
-                    if (group != null) {
-                        switch (group) {
-                            case "forecastNext":
-                                state = DecimalType.valueOf(parser.getNextPrecMM());
-                                break;
-                            case "forecastFuture":
-                                state = DecimalType.valueOf(parser.getFuturePrecMM());
-                                break;
-                        }
-                    }
-                    try {
-                        updateState(channel.getUID().getId(), state);
-                    } catch (Exception er) {
-                        logger.debug("CHANNEL_PRECMM channel update error {}", er.toString());
-                    }
-                } else if (channel.getUID().getIdWithoutGroup().equals(CHANNEL_PRECPERIOD)) {
-                    DecimalType state = new DecimalType();
-                    String group = channel.getUID().getGroupId();
-                    if (group != null) {
-                        switch (group) {
-                            case "forecastNext":
-                                state = DecimalType.valueOf(parser.getNextPrecPeriod());
-                                break;
-                            case "forecastFuture":
-                                state = DecimalType.valueOf(parser.getFuturePrecPeriod());
-                                break;
-                        }
-                    }
-                    try {
-                        updateState(channel.getUID().getId(), state);
-                    } catch (Exception er) {
-                        logger.debug("CHANNEL_PRECPERIOD channel update error {}", er.toString());
-                    }
-                } else if (channel.getUID().getIdWithoutGroup().equals(CHANNEL_PRECPROB)) {
-                    DecimalType state = new DecimalType();
-                    String group = channel.getUID().getGroupId();
-                    if (group != null) {
-                        switch (group) {
-                            case "forecastNext":
-                                state = DecimalType.valueOf(parser.getNextPrecProb());
-                                break;
-                            case "forecastFuture":
-                                state = DecimalType.valueOf(parser.getFuturePrecProb());
-                                break;
-                        }
-                    }
-                    try {
-                        updateState(channel.getUID().getId(), state);
-                    } catch (Exception er) {
-                        logger.debug("CHANNEL_PRECPROB channel update error {}", er.toString());
-                    }
-                }
+    /**
+     * Publishes the icon once the bridge has it. A completion is dropped if the channel asked for another icon or the
+     * handler was disposed in the meantime.
+     */
+    private void requestIcon(ChannelUID channelUID, String icon, boolean force) {
+        YandexWeatherBridgeHandler bridgeDeviceHandler = this.bridgeDeviceHandler;
+        if (bridgeDeviceHandler == null) {
+            logger.debug("{} channel update error: no bridge handler", channelUID);
+            return;
+        }
+        requestedIcons.put(channelUID, icon);
+        bridgeDeviceHandler.getIconAsync(icon).whenComplete((image, error) -> {
+            if (!icon.equals(requestedIcons.get(channelUID))) {
+                return;
             }
+            if (error != null) {
+                logger.debug("{} channel update error {}", channelUID, error.toString());
+            } else {
+                publish(channelUID, image, force);
+                publishedIcons.put(channelUID, icon);
+            }
+        });
+    }
+
+    /**
+     * Updates the channel only if its state differs from the last published one, or if forced by the heartbeat.
+     *
+     * @return true if the channel was updated
+     */
+    private boolean publish(ChannelUID channelUID, State state, boolean force) {
+        State previous = publishedStates.put(channelUID, state);
+        if (force || !state.equals(previous)) {
+            updateState(channelUID, state);
+            return true;
+        }
+        return false;
+    }
+
+    private boolean isHeartbeatDue() {
+        YandexWeatherConfiguration config = this.config;
+        if (config == null || config.heartbeatInterval <= 0) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        if (now - lastHeartbeat < TimeUnit.MINUTES.toMillis(config.heartbeatInterval)) {
+            return false;
         }
+        lastHeartbeat = now;
+        return true;
+    }
+
+    private record ChannelDispatch(ChannelUID channelUID, Function<YandexWeatherSnapshot, State> extractor) {
+    }
+
+    private record IconDispatch(ChannelUID channelUID, Function<YandexWeatherSnapshot, @Nullable String> icon) {
+    }
+
+    private record SeriesDispatch(ChannelUID channelUID, SeriesExtractor series) {
     }
 }
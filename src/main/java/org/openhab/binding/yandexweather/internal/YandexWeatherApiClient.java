@@ -0,0 +1,255 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.yandexweather.internal;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodySubscribers;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link YandexWeatherApiClient} builds and sends the requests of one bridge. All bridges send through the
+ * single {@link HttpClient} of the {@link YandexWeatherService}, so connections to the API are pooled and kept alive,
+ * HTTP/2 is negotiated over TLS where the server offers it and TLS sessions are resumed from the single session cache
+ * of the client's SSL context. Redirects are not followed, as that would send the API key to another host. Weather
+ * responses are requested compressed and inflated while they are decoded. A body closed before its end, as the
+ * parser does after the last value, is drained first, so the connection goes back to the pool instead of being dropped.
+ *
+ * @author Petr Shatsillo - Initial contribution
+ */
+@NonNullByDefault
+public class YandexWeatherApiClient {
+    public static final String DEFAULT_BASE_URL = "https://api.weather.yandex.ru/v2";
+    public static final String ENDPOINT_INFORMERS = "informers";
+    public static final String ENDPOINT_FORECAST = "forecast";
+    private static final Duration CONNECT_TIMEOUT = Duration.ofMillis(1500);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofMillis(1500);
+    private static final int BUFFER_SIZE = 8192;
+    /** Bytes of a closed body read to reuse its connection, a longer rest is cheaper to drop with the connection */
+    private static final int DRAIN_LIMIT = 65536;
+
+    private final Transport transport;
+    private final String baseUrl;
+    private final boolean forecast;
+    private final int forecastDays;
+    private final int forecastHours;
+
+    /**
+     * @param baseUrl URL the endpoint names are appended to, {@link #DEFAULT_BASE_URL} for the Yandex API
+     * @param endpoint {@link #ENDPOINT_INFORMERS} or {@link #ENDPOINT_FORECAST}
+     * @param forecastDays number of days requested from the forecast endpoint
+     * @param forecastHours number of hours kept from the forecast endpoint, 0 to request no hours
+     */
+    public YandexWeatherApiClient(Transport transport, String baseUrl, String endpoint, int forecastDays,
+            int forecastHours) {
+        this.transport = transport;
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.forecast = ENDPOINT_FORECAST.equals(endpoint);
+        this.forecastDays = forecast ? Math.max(1, forecastDays) : 0;
+        this.forecastHours = forecast ? Math.max(0, forecastHours) : 0;
+    }
+
+    public static HttpClient newHttpClient() {
+        return HttpClient.newBuilder().connectTimeout(CONNECT_TIMEOUT).followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+    }
+
+    /**
+     * @return a transport sending the requests over the network with the given client
+     */
+    public static Transport transport(HttpClient httpClient) {
+        return request -> httpClient.send(request,
+                info -> BodySubscribers.mapping(BodySubscribers.ofInputStream(), DrainingInputStream::new));
+    }
+
+    /**
+     * @return the key of the weather response of a tile, equal for all bridges that request the same data
+     */
+    public String cacheKey(String tileKey) {
+        return baseUrl + "/"
+                + (forecast ? ENDPOINT_FORECAST + ":" + forecastDays + ":" + forecastHours : ENDPOINT_INFORMERS)
+                + "@" + tileKey;
+    }
+
+    /**
+     * @param apiKey the key to send the request with
+     * @return a request for the weather at the given coordinates, which the caller may amend before sending it
+     */
+    public HttpRequest.Builder newWeatherRequest(String apiKey, String lat, String lon) {
+        String uri = forecast
+                ? baseUrl + "/" + ENDPOINT_FORECAST + "?lat=" + lat + "&lon=" + lon + "&limit=" + forecastDays
+                        + "&hours=" + (forecastHours > 0) + "&extra=false"
+                : baseUrl + "/" + ENDPOINT_INFORMERS + "?lat=" + lat + "&lon=" + lon;
+        return newRequest(URI.create(uri))
+                .header("Accept", "application/json").header("Accept-Encoding", "gzip, deflate")
+                .header("X-Yandex-API-Key", apiKey);
+    }
+
+    /**
+     * @return the body of the response, decompressed on the fly according to its {@code Content-Encoding}
+     * @throws IOException if the encoding is not supported or the compressed header is broken
+     */
+    public static InputStream decodedBody(HttpResponse<InputStream> response) throws IOException {
+        return decodedBody(response, response.body());
+    }
+
+    /**
+     * @return the bytes read from the raw body of a response so far, including those drained on close, or -1 if the
+     *         body is not one of the transports of this binding
+     */
+    public static long bytesReceived(InputStream body) {
+        return body instanceof DrainingInputStream draining ? draining.bytesRead : -1;
+    }
+
+    /**
+     * @param body the raw body of the response, possibly wrapped
+     * @return the body, decompressed on the fly according to the {@code Content-Encoding} of the response
+     * @throws IOException if the encoding is not supported or the compressed header is broken
+     */
+    public static InputStream decodedBody(HttpResponse<?> response, InputStream body) throws IOException {
+        String encoding = response.headers().firstValue("Content-Encoding").orElse("identity").trim()
+                .toLowerCase(Locale.ROOT);
+        switch (encoding) {
+            case "identity":
+            case "":
+                return body;
+            case "gzip":
+            case "x-gzip":
+                return new GZIPInputStream(body, BUFFER_SIZE);
+            case "deflate":
+                // "deflate" should be zlib wrapped, but some servers send a raw deflate stream
+                PushbackInputStream in = new PushbackInputStream(body, 2);
+                byte[] header = in.readNBytes(2);
+                in.unread(header);
+                boolean zlib = header.length == 2 && (header[0] & 0x0F) == 8
+                        && (((header[0] & 0xFF) << 8) | (header[1] & 0xFF)) % 31 == 0;
+                return new InflaterInputStream(in, new Inflater(!zlib), BUFFER_SIZE);
+            default:
+                body.close();
+                throw new IOException("Unsupported content encoding " + encoding);
+        }
+    }
+
+    /**
+     * @return number of forecast days in a weather response, 0 for the informers endpoint
+     */
+    public int getForecastDays() {
+        return forecastDays;
+    }
+
+    /**
+     * @return number of forecast hours to keep from a weather response, 0 if hours are not requested
+     */
+    public int getForecastHours() {
+        return forecastHours;
+    }
+
+    /**
+     * @return a GET request; plain HTTP is sent as HTTP/1.1, so a local test server isn't asked for an h2c upgrade
+     */
+    public static HttpRequest.Builder newRequest(URI uri) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri).timeout(REQUEST_TIMEOUT).GET();
+        if ("http".equalsIgnoreCase(uri.getScheme())) {
+            request.version(HttpClient.Version.HTTP_1_1);
+        }
+        return request;
+    }
+
+    /**
+     * Sends the request. The caller has to close the body stream, which returns the connection to the pool.
+     */
+    public HttpResponse<InputStream> send(HttpRequest request) throws IOException, InterruptedException {
+        return transport.send(request);
+    }
+
+    /**
+     * Sends a request and returns the response with the body as a stream.
+     */
+    @FunctionalInterface
+    public interface Transport {
+        HttpResponse<InputStream> send(HttpRequest request) throws IOException, InterruptedException;
+    }
+
+    /**
+     * Reads the rest of the body on close, up to {@link #DRAIN_LIMIT} bytes, as the client only pools a connection
+     * whose response was received completely.
+     */
+    static class DrainingInputStream extends FilterInputStream {
+        private long bytesRead;
+        private boolean closed;
+
+        DrainingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {
+                bytesRead++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = in.read(b, off, len);
+            if (read > 0) {
+                bytesRead += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(n);
+            bytesRead += skipped;
+            return skipped;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                for (int drained = 0; drained < DRAIN_LIMIT;) {
+                    int read = in.read(buffer);
+                    if (read < 0) {
+                        break;
+                    }
+                    drained += read;
+                    bytesRead += read;
+                }
+            } catch (IOException e) {
+                // the connection is dropped on close anyway
+            } finally {
+                in.close();
+            }
+        }
+    }
+}
@@ -30,6 +30,14 @@ public class YandexWeatherBindingConstants {
     public static final ThingTypeUID THING_TYPE_API_BRIDGE = new ThingTypeUID(BINDING_ID, "bridge");
     public static final ThingTypeUID THING_YANDEXWEATHER = new ThingTypeUID(BINDING_ID, "yandexweather");
 
+    // List of all Channel group ids
+    public static final String GROUP_CURRENT = "current";
+    public static final String GROUP_FORECAST_NEXT = "forecastNext";
+    public static final String GROUP_FORECAST_FUTURE = "forecastFuture";
+    public static final String GROUP_FORECAST_HOURLY = "forecastHourly";
+
+    public static final String ICON_URL = "https://yastatic.net/weather/i/icons/funky/dark/%s.svg";
+
     // List of all Channel ids
     public static final String CHANNEL_DATETIME = "datetime";
     public static final String CHANNEL_TEMPERATURE = "temperature";
@@ -49,6 +57,13 @@ public class YandexWeatherBindingConstants {
     public static final String CHANNEL_SUNSET = "sunset";
     public static final String CHANNEL_MOONCODE = "mooncode";
     public static final String CHANNEL_TEMPWATER = "tempwater";
+    public static final String CHANNEL_STALE = "stale";
+    public static final String CHANNEL_FETCH_LATENCY = "fetchlatency";
+    public static final String CHANNEL_DEWPOINT = "dewpoint";
+    public static final String CHANNEL_HEATINDEX = "heatindex";
+    public static final String CHANNEL_WINDCHILL = "windchill";
+    public static final String CHANNEL_PRESSURE_TENDENCY = "pressuretendency";
+    public static final String CHANNEL_TEMPERATURE_TREND = "temperaturetrend";
 
     // forecast
     public static final String CHANNEL_PARTNAME = "partname";
@@ -58,4 +73,20 @@ public class YandexWeatherBindingConstants {
     public static final String CHANNEL_PRECMM = "precmm";
     public static final String CHANNEL_PRECPERIOD = "precperiod";
     public static final String CHANNEL_PRECPROB = "precprob";
+
+    // bridge
+    public static final String CHANNEL_QUOTA_REMAINING = "quotaRemaining";
+    public static final String CHANNEL_CACHE_HITS = "cacheHits";
+    public static final String CHANNEL_CACHE_MISSES = "cacheMisses";
+    public static final String CHANNEL_CACHE_REVALIDATIONS = "cacheRevalidations";
+    public static final String CHANNEL_QUOTA_USED = "quotaUsed";
+    public static final String CHANNEL_FETCH_LATENCY_P50 = "fetchLatencyP50";
+    public static final String CHANNEL_FETCH_LATENCY_P95 = "fetchLatencyP95";
+    public static final String CHANNEL_BYTES_RECEIVED = "bytesReceived";
+    public static final String CHANNEL_DECODE_TIME = "decodeTime";
+    public static final String CHANNEL_CHANNELS_UPDATED = "channelsUpdated";
+    public static final String CHANNEL_ICON_CACHE_HITS = "iconCacheHits";
+    public static final String CHANNEL_ICON_CACHE_MISSES = "iconCacheMisses";
+    public static final String CHANNEL_ERRORS = "errors";
+    public static final String CHANNEL_ERRORS_BY_CLASS = "errorsByClass";
 }
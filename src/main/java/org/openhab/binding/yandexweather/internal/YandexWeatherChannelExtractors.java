@@ -0,0 +1,344 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.yandexweather.internal;
+
+import static org.openhab.binding.yandexweather.internal.YandexWeatherBindingConstants.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.function.Function;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherCondition;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherDaytime;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherFact;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherForecastPart;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherForecastSeries;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherPartName;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherSeason;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherSnapshot;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherWindDirection;
+import org.openhab.core.library.types.DateTimeType;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.StringType;
+import org.openhab.core.types.State;
+import org.openhab.core.types.TimeSeries;
+import org.openhab.core.types.UnDefType;
+
+/**
+ * The {@link YandexWeatherChannelExtractors} resolves a channel to a function, which takes its state from a
+ * {@link YandexWeatherSnapshot}. Channel ids are compared once, when a handler builds its dispatch table.
+ *
+ * @author Petr Shatsillo - Initial contribution
+ */
+@NonNullByDefault
+public final class YandexWeatherChannelExtractors {
+
+    private YandexWeatherChannelExtractors() {
+    }
+
+    /**
+     * @return the extractor of the channel, or null if the channel has no state in a snapshot
+     */
+    public static @Nullable Function<YandexWeatherSnapshot, State> forChannel(@Nullable String group, String id) {
+        Function<YandexWeatherSnapshot, State> day = forDay(id);
+        if (day != null) {
+            return day;
+        }
+        if (GROUP_CURRENT.equals(group)) {
+            Function<YandexWeatherFact, State> fact = forFact(id);
+            return fact != null ? snapshot -> fact.apply(snapshot.getFact()) : null;
+        }
+        int index = partIndex(group);
+        if (index >= 0) {
+            Function<YandexWeatherForecastPart, State> part = forPart(id);
+            return part != null ? snapshot -> part.apply(snapshot.getPart(index)) : null;
+        }
+        return null;
+    }
+
+    /**
+     * @return the extractor of a channel computed by the derived metrics of the thing, or null if the channel is not
+     *         one of them
+     */
+    public static @Nullable Function<YandexWeatherSnapshot, State> forDerived(@Nullable String group, String id,
+            YandexWeatherDerivedMetrics metrics) {
+        if (!GROUP_CURRENT.equals(group)) {
+            return null;
+        }
+        switch (id) {
+            case CHANNEL_DEWPOINT:
+                return snapshot -> decimalState(metrics.getDewPoint());
+            case CHANNEL_HEATINDEX:
+                return snapshot -> decimalState(metrics.getHeatIndex());
+            case CHANNEL_WINDCHILL:
+                return snapshot -> decimalState(metrics.getWindChill());
+            case CHANNEL_PRESSURE_TENDENCY:
+                return snapshot -> decimalState(metrics.getPressureTendency());
+            case CHANNEL_TEMPERATURE_TREND:
+                return snapshot -> decimalState(metrics.getTemperatureTrend());
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Channels of the hourly group get the hourly forecast. Channels of the current group get the whole forecast
+     * horizon, see {@link #forecast(YandexWeatherSnapshot)}.
+     *
+     * @return the extractor of the forecast time series of the channel, or null if the channel has no time series
+     */
+    public static @Nullable SeriesExtractor forSeries(@Nullable String group, String id) {
+        boolean hourly = GROUP_FORECAST_HOURLY.equals(group);
+        if (!hourly && !GROUP_CURRENT.equals(group)) {
+            return null;
+        }
+        SeriesColumn column = forColumn(id);
+        return column != null ? new SeriesExtractor(!hourly, column) : null;
+    }
+
+    /**
+     * Joins the current weather, the hourly forecast and the day parts after the last hour into one series, so a
+     * channel gets the whole horizon at the finest resolution available. Runs in linear time, as all inputs are
+     * ordered by time.
+     */
+    public static YandexWeatherForecastSeries forecast(YandexWeatherSnapshot snapshot) {
+        YandexWeatherForecastSeries hourly = snapshot.getHourly();
+        YandexWeatherForecastSeries dayParts = snapshot.getDayParts();
+        YandexWeatherForecastSeries.Builder forecast = new YandexWeatherForecastSeries.Builder(
+                1 + hourly.size() + dayParts.size());
+        long last = YandexWeatherSnapshot.ABSENT_TIME;
+        if (snapshot.getObservationTime() != YandexWeatherSnapshot.ABSENT_TIME) {
+            YandexWeatherFact fact = snapshot.getFact();
+            last = snapshot.getObservationTime();
+            forecast.next(last);
+            forecast.setTemperature(fact.getTemperature());
+            forecast.setFeelsLike(fact.getFeelsLike());
+            forecast.setWindSpeed(fact.getWindSpeed());
+            forecast.setWindGust(fact.getWindGust());
+            forecast.setPressureMm(fact.getPressureMm());
+            forecast.setHumidity(fact.getHumidity());
+        }
+        for (YandexWeatherForecastSeries series : List.of(hourly, dayParts)) {
+            for (int i = 0; i < series.size(); i++) {
+                if (series.getTime(i) > last) {
+                    forecast.copy(series, i);
+                    last = series.getTime(i);
+                }
+            }
+        }
+        return forecast.build();
+    }
+
+    /**
+     * @return the extractor of the icon code shown in the given group, or null if the group has no icon
+     */
+    public static @Nullable Function<YandexWeatherSnapshot, @Nullable String> forIcon(@Nullable String group) {
+        if (GROUP_CURRENT.equals(group)) {
+            return snapshot -> snapshot.getFact().getIcon();
+        }
+        int index = partIndex(group);
+        return index >= 0 ? snapshot -> snapshot.getPart(index).getIcon() : null;
+    }
+
+    private static int partIndex(@Nullable String group) {
+        if (GROUP_FORECAST_NEXT.equals(group)) {
+            return 0;
+        } else if (GROUP_FORECAST_FUTURE.equals(group)) {
+            return 1;
+        }
+        return -1;
+    }
+
+    private static @Nullable Function<YandexWeatherSnapshot, State> forDay(String id) {
+        switch (id) {
+            case CHANNEL_DATETIME:
+                return snapshot -> timeState(snapshot.getObservationTime());
+            case CHANNEL_WEEKNO:
+                return snapshot -> decimalState(snapshot.getWeekNo());
+            case CHANNEL_SUNRISE:
+                return snapshot -> timeState(snapshot.getSunrise());
+            case CHANNEL_SUNSET:
+                return snapshot -> timeState(snapshot.getSunset());
+            case CHANNEL_MOONCODE:
+                return snapshot -> decimalState(snapshot.getMoonCode());
+            case CHANNEL_SEASON:
+                return snapshot -> {
+                    YandexWeatherSeason season = snapshot.getFact().getSeason();
+                    return stringState(season != null ? season.getCode() : null);
+                };
+            default:
+                return null;
+        }
+    }
+
+    private static @Nullable Function<YandexWeatherFact, State> forFact(String id) {
+        switch (id) {
+            case CHANNEL_TEMPERATURE:
+                return fact -> decimalState(fact.getTemperature());
+            case CHANNEL_FEELSLIKE:
+                return fact -> decimalState(fact.getFeelsLike());
+            case CHANNEL_TEMPWATER:
+                return fact -> decimalState(fact.getTempWater());
+            case CHANNEL_ICON_URL:
+                return fact -> iconUrlState(fact.getIcon());
+            case CHANNEL_CONDITION:
+                return fact -> conditionState(fact.getCondition());
+            case CHANNEL_WINDSPEED:
+                return fact -> decimalState(fact.getWindSpeed());
+            case CHANNEL_WINDGUST:
+                return fact -> decimalState(fact.getWindGust());
+            case CHANNEL_WINDDIR:
+                return fact -> windDirState(fact.getWindDir());
+            case CHANNEL_PRESSUREMM:
+                return fact -> decimalState(fact.getPressureMm());
+            case CHANNEL_HUMIDITY:
+                return fact -> decimalState(fact.getHumidity());
+            case CHANNEL_DAYTIME:
+                return fact -> daytimeState(fact.getDaytime());
+            default:
+                return null;
+        }
+    }
+
+    private static @Nullable Function<YandexWeatherForecastPart, State> forPart(String id) {
+        switch (id) {
+            case CHANNEL_PARTNAME:
+                return part -> {
+                    YandexWeatherPartName partName = part.getPartName();
+                    return stringState(partName != null ? partName.getCode() : null);
+                };
+            case CHANNEL_TEMPMIN:
+                return part -> decimalState(part.getTempMin());
+            case CHANNEL_TEMPMAX:
+                return part -> decimalState(part.getTempMax());
+            case CHANNEL_TEMPAVG:
+                return part -> decimalState(part.getTempAvg());
+            case CHANNEL_FEELSLIKE:
+                return part -> decimalState(part.getFeelsLike());
+            case CHANNEL_TEMPWATER:
+                return part -> decimalState(part.getTempWater());
+            case CHANNEL_ICON_URL:
+                return part -> iconUrlState(part.getIcon());
+            case CHANNEL_CONDITION:
+                return part -> conditionState(part.getCondition());
+            case CHANNEL_DAYTIME:
+                return part -> daytimeState(part.getDaytime());
+            case CHANNEL_WINDSPEED:
+                return part -> decimalState(part.getWindSpeed());
+            case CHANNEL_WINDGUST:
+                return part -> decimalState(part.getWindGust());
+            case CHANNEL_WINDDIR:
+                return part -> windDirState(part.getWindDir());
+            case CHANNEL_PRESSUREMM:
+                return part -> decimalState(part.getPressureMm());
+            case CHANNEL_HUMIDITY:
+                return part -> decimalState(part.getHumidity());
+            case CHANNEL_PRECMM:
+                return part -> decimalState(part.getPrecMm());
+            case CHANNEL_PRECPERIOD:
+                return part -> decimalState(part.getPrecPeriod());
+            case CHANNEL_PRECPROB:
+                return part -> decimalState(part.getPrecProb());
+            default:
+                return null;
+        }
+    }
+
+    private static @Nullable SeriesColumn forColumn(String id) {
+        switch (id) {
+            case CHANNEL_TEMPERATURE:
+                return (series, i) -> decimalState(series.getTemperature(i));
+            case CHANNEL_FEELSLIKE:
+                return (series, i) -> decimalState(series.getFeelsLike(i));
+            case CHANNEL_WINDSPEED:
+                return (series, i) -> decimalState(series.getWindSpeed(i));
+            case CHANNEL_WINDGUST:
+                return (series, i) -> decimalState(series.getWindGust(i));
+            case CHANNEL_PRESSUREMM:
+                return (series, i) -> decimalState(series.getPressureMm(i));
+            case CHANNEL_HUMIDITY:
+                return (series, i) -> decimalState(series.getHumidity(i));
+            case CHANNEL_PRECMM:
+                return (series, i) -> decimalState(series.getPrecMm(i));
+            case CHANNEL_PRECPROB:
+                return (series, i) -> decimalState(series.getPrecProb(i));
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Builds a time series of one column, skipping points where the value is absent.
+     */
+    public static TimeSeries timeSeries(YandexWeatherForecastSeries series, SeriesColumn column) {
+        TimeSeries timeSeries = new TimeSeries(TimeSeries.Policy.REPLACE);
+        for (int i = 0; i < series.size(); i++) {
+            State state = column.get(series, i);
+            if (state != UnDefType.UNDEF) {
+                timeSeries.add(Instant.ofEpochMilli(series.getTime(i)), state);
+            }
+        }
+        return timeSeries;
+    }
+
+    public static State decimalState(int value) {
+        return value == YandexWeatherSnapshot.ABSENT_INT ? UnDefType.UNDEF : new DecimalType(value);
+    }
+
+    public static State decimalState(double value) {
+        return Double.isNaN(value) ? UnDefType.UNDEF : new DecimalType(BigDecimal.valueOf(value));
+    }
+
+    public static State timeState(long epochMillis) {
+        return epochMillis == YandexWeatherSnapshot.ABSENT_TIME ? UnDefType.UNDEF
+                : new DateTimeType(Instant.ofEpochMilli(epochMillis).atZone(ZoneId.systemDefault()));
+    }
+
+    public static State stringState(@Nullable String value) {
+        return value != null ? new StringType(value) : UnDefType.UNDEF;
+    }
+
+    private static State iconUrlState(@Nullable String icon) {
+        return icon != null ? new StringType(String.format(ICON_URL, icon)) : UnDefType.UNDEF;
+    }
+
+    private static State conditionState(@Nullable YandexWeatherCondition condition) {
+        return stringState(condition != null ? condition.getCode() : null);
+    }
+
+    private static State windDirState(@Nullable YandexWeatherWindDirection windDir) {
+        return stringState(windDir != null ? windDir.getCode() : null);
+    }
+
+    private static State daytimeState(@Nullable YandexWeatherDaytime daytime) {
+        return stringState(daytime != null ? daytime.getCode() : null);
+    }
+
+    /**
+     * Reads the state of one point of a series column.
+     */
+    @FunctionalInterface
+    public interface SeriesColumn {
+        State get(YandexWeatherForecastSeries series, int index);
+    }
+
+    /**
+     * @param forecast true for the joined forecast, false for the hourly series
+     */
+    public record SeriesExtractor(boolean forecast, SeriesColumn column) {
+    }
+}
@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.yandexweather.internal;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link YandexWeatherCircuitBreaker} stops a bridge from sending requests while the API keeps failing. After
+ * {@link #FAILURE_THRESHOLD} failures in a row the circuit opens for a jittered, exponentially growing delay. When
+ * the delay is over a single probe request is let through: if it succeeds the circuit closes, otherwise it opens
+ * again for twice as long.
+ *
+ * @author Petr Shatsillo - Initial contribution
+ */
+@NonNullByDefault
+public class YandexWeatherCircuitBreaker {
+    public static final int FAILURE_THRESHOLD = 3;
+    private static final long BASE_DELAY = TimeUnit.SECONDS.toMillis(30);
+    private static final long MAX_DELAY = TimeUnit.HOURS.toMillis(1);
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN,
+        /** Requests are refused until {@link #reset()}, used when retrying can't help */
+        HALTED
+    }
+
+    private State state = State.CLOSED;
+    private int failures = 0;
+    private int opened = 0;
+    private long retryAt = 0;
+    private boolean probing = false;
+
+    /**
+     * @return true if a request may be sent now. In the half-open state only the first caller gets true, and it
+     *         has to report the outcome of its request.
+     */
+    public synchronized boolean allowRequest(long now) {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (now < retryAt) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                probing = false;
+                // fall through
+            case HALF_OPEN:
+                if (probing) {
+                    return false;
+                }
+                probing = true;
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALTED) {
+            return;
+        }
+        state = State.CLOSED;
+        failures = 0;
+        opened = 0;
+        probing = false;
+    }
+
+    /**
+     * Gives back a half-open probe that was allowed but not sent, so the next caller may probe instead.
+     */
+    public synchronized void releaseProbe() {
+        if (state == State.HALF_OPEN) {
+            probing = false;
+        }
+    }
+
+    /**
+     * Counts a failed request.
+     *
+     * @return true if the circuit opened because of this failure
+     */
+    public synchronized boolean onFailure(long now) {
+        if (state == State.HALTED || state == State.OPEN) {
+            return false;
+        }
+        failures++;
+        if (state == State.HALF_OPEN || failures >= FAILURE_THRESHOLD) {
+            long delay = Math.min(MAX_DELAY, BASE_DELAY << Math.min(opened, 16));
+            // full jitter on the upper half, so bridges that failed together don't retry together
+            delay = delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+            open(now + delay);
+            opened++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Opens the circuit until the given time, e.g. when the API told when to retry.
+     */
+    public synchronized void openUntil(long retryAt) {
+        if (state != State.HALTED) {
+            open(retryAt);
+        }
+    }
+
+    /**
+     * Refuses all requests until {@link #reset()}.
+     */
+    public synchronized void halt() {
+        state = State.HALTED;
+        probing = false;
+    }
+
+    public synchronized void reset() {
+        state = State.CLOSED;
+        failures = 0;
+        opened = 0;
+        retryAt = 0;
+        probing = false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * @return the time in ms when the next request may be tried, or 0 if requests are allowed
+     */
+    public synchronized long getRetryAt() {
+        return state == State.OPEN ? retryAt : 0;
+    }
+
+    private void open(long retryAt) {
+        state = State.OPEN;
+        this.retryAt = retryAt;
+        probing = false;
+    }
+}
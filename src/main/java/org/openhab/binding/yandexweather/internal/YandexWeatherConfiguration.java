@@ -21,11 +21,22 @@ import org.eclipse.jdt.annotation.NonNullByDefault;
  */
 @NonNullByDefault
 public class YandexWeatherConfiguration {
+    public static final int DEFAULT_COORDINATE_PRECISION = 3;
 
     /**
      * Sample configuration parameters. Replace with your own.
      */
     public String api = "";
     public String location = "";
+    public int heartbeatInterval = 0;
     public int refreshInterval = 50;
+    public int maxConcurrentRequests = 4;
+    public int coordinatePrecision = DEFAULT_COORDINATE_PRECISION;
+    public String endpoint = YandexWeatherApiClient.ENDPOINT_INFORMERS;
+    public int forecastDays = 3;
+    public int forecastHours = 24;
+    public String baseUrl = YandexWeatherApiClient.DEFAULT_BASE_URL;
+    public String replayDirectory = "";
+    public int replayLatency = 0;
+    public int replayErrorRate = 0;
 }
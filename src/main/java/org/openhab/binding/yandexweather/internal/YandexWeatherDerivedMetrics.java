@@ -0,0 +1,244 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.yandexweather.internal;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherFact;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherSnapshot;
+
+/**
+ * The {@link YandexWeatherDerivedMetrics} computes values the API doesn't return: dew point, heat index and wind
+ * chill of the current weather, the pressure tendency over three hours and the rate of temperature change. It keeps
+ * the last observations of a location in a ring buffer of primitive arrays, so adding an observation allocates
+ * nothing. Only one observation per {@link #SAMPLE_INTERVAL} is kept, the newest one replaces the previous one until
+ * that is old enough, so the buffer covers the same hours however often the location is refreshed. Values that can't
+ * be computed yet, or from the observed values, are {@link Double#NaN}.
+ *
+ * @author Petr Shatsillo - Initial contribution
+ */
+@NonNullByDefault
+public class YandexWeatherDerivedMetrics {
+    /** Shortest time between two kept observations, except for the newest one */
+    private static final long SAMPLE_INTERVAL = TimeUnit.MINUTES.toMillis(10);
+    /** Covers more than five hours of observations, enough for the pressure tendency */
+    private static final int CAPACITY = 32;
+    private static final long TENDENCY_PERIOD = TimeUnit.HOURS.toMillis(3);
+    /** Oldest observation the pressure tendency is still scaled from */
+    private static final long TENDENCY_MAX_AGE = TimeUnit.HOURS.toMillis(6);
+    /** The temperature trend is taken over up to this period, and at least over {@link #TREND_MIN_PERIOD} */
+    private static final long TREND_PERIOD = TimeUnit.HOURS.toMillis(3);
+    private static final long TREND_MIN_PERIOD = TimeUnit.MINUTES.toMillis(10);
+    private static final double HOUR_MILLIS = TimeUnit.HOURS.toMillis(1);
+    /** Magnus coefficients over water, Sonntag 1990 */
+    private static final double MAGNUS_B = 17.62;
+    private static final double MAGNUS_C = 243.12;
+    /** The heat index is defined from this temperature in degrees Fahrenheit on, 26.7 degrees Celsius */
+    private static final double HEAT_INDEX_MIN_TEMPERATURE_F = 80;
+    /** Wind chill is defined at or below this temperature in degrees Celsius and above this wind speed in km/h */
+    private static final double WIND_CHILL_MAX_TEMPERATURE = 10;
+    private static final double WIND_CHILL_MIN_SPEED = 4.8;
+
+    private final long[] times = new long[CAPACITY];
+    private final double[] temperatures = new double[CAPACITY];
+    private final double[] pressures = new double[CAPACITY];
+    private int head;
+    private int size;
+    private double dewPoint = Double.NaN;
+    private double heatIndex = Double.NaN;
+    private double windChill = Double.NaN;
+    private double pressureTendency = Double.NaN;
+    private double temperatureTrend = Double.NaN;
+
+    /**
+     * Adds the current weather of the snapshot and recomputes all values. A snapshot that is not newer than the last
+     * one added, like the same response fanned out again, is ignored.
+     *
+     * @return true if the values were recomputed
+     */
+    public synchronized boolean update(YandexWeatherSnapshot snapshot) {
+        long time = snapshot.getObservationTime();
+        if (time == YandexWeatherSnapshot.ABSENT_TIME || size > 0 && time <= times[head]) {
+            return false;
+        }
+        YandexWeatherFact fact = snapshot.getFact();
+        double temperature = valueOf(fact.getTemperature());
+        double humidity = valueOf(fact.getHumidity());
+        if (size < 2 || times[head] - times[previous(head)] >= SAMPLE_INTERVAL) {
+            head = (head + 1) % CAPACITY;
+            size = Math.min(size + 1, CAPACITY);
+        }
+        times[head] = time;
+        temperatures[head] = temperature;
+        pressures[head] = valueOf(fact.getPressureMm());
+
+        dewPoint = round(dewPoint(temperature, humidity));
+        heatIndex = round(heatIndex(temperature, humidity));
+        windChill = round(windChill(temperature, fact.getWindSpeed()));
+        pressureTendency = round(pressureTendency());
+        temperatureTrend = round(temperatureTrend());
+        return true;
+    }
+
+    public synchronized void clear() {
+        head = 0;
+        size = 0;
+        dewPoint = Double.NaN;
+        heatIndex = Double.NaN;
+        windChill = Double.NaN;
+        pressureTendency = Double.NaN;
+        temperatureTrend = Double.NaN;
+    }
+
+    /**
+     * @return the dew point in degrees Celsius
+     */
+    public synchronized double getDewPoint() {
+        return dewPoint;
+    }
+
+    /**
+     * @return the heat index in degrees Celsius, or the air temperature if it is too cold for a heat index
+     */
+    public synchronized double getHeatIndex() {
+        return heatIndex;
+    }
+
+    /**
+     * @return the wind chill in degrees Celsius, or the air temperature if it is too warm or too calm for wind chill
+     */
+    public synchronized double getWindChill() {
+        return windChill;
+    }
+
+    /**
+     * @return the change of pressure over the last three hours in mm Hg
+     */
+    public synchronized double getPressureTendency() {
+        return pressureTendency;
+    }
+
+    /**
+     * @return the rate of temperature change over the last hours in degrees Celsius per hour
+     */
+    public synchronized double getTemperatureTrend() {
+        return temperatureTrend;
+    }
+
+    /**
+     * Magnus formula, accurate to about 0.1 degrees between -45 and 60 degrees Celsius.
+     */
+    private static double dewPoint(double temperature, double humidity) {
+        if (Double.isNaN(temperature) || Double.isNaN(humidity) || humidity <= 0) {
+            return Double.NaN;
+        }
+        double gamma = Math.log(humidity / 100) + MAGNUS_B * temperature / (MAGNUS_C + temperature);
+        return MAGNUS_C * gamma / (MAGNUS_B - gamma);
+    }
+
+    /**
+     * Heat index of the US National Weather Service: Steadman's simple formula, and the Rothfusz regression with its
+     * adjustments where the simple one averaged with the temperature reaches 80 degrees Fahrenheit. Below 80 degrees
+     * Fahrenheit the index is not defined and the air temperature is returned, like {@link #windChill} does above its
+     * range.
+     */
+    private static double heatIndex(double temperature, double humidity) {
+        if (Double.isNaN(temperature) || Double.isNaN(humidity)) {
+            return Double.NaN;
+        }
+        double t = temperature * 9 / 5 + 32;
+        if (t < HEAT_INDEX_MIN_TEMPERATURE_F) {
+            return temperature;
+        }
+        double rh = humidity;
+        double index = 0.5 * (t + 61 + (t - 68) * 1.2 + rh * 0.094);
+        if ((index + t) / 2 >= HEAT_INDEX_MIN_TEMPERATURE_F) {
+            index = -42.379 + 2.04901523 * t + 10.14333127 * rh - 0.22475541 * t * rh - 0.00683783 * t * t
+                    - 0.05481717 * rh * rh + 0.00122874 * t * t * rh + 0.00085282 * t * rh * rh
+                    - 0.00000199 * t * t * rh * rh;
+            if (rh < 13 && t >= 80 && t <= 112) {
+                index -= (13 - rh) / 4 * Math.sqrt((17 - Math.abs(t - 95)) / 17);
+            } else if (rh > 85 && t >= 80 && t <= 87) {
+                index += (rh - 85) / 10 * (87 - t) / 5;
+            }
+        }
+        return (index - 32) * 5 / 9;
+    }
+
+    /**
+     * Wind chill index of Environment Canada and the US National Weather Service.
+     *
+     * @param windSpeed in m/s, as returned by the API
+     */
+    private static double windChill(double temperature, double windSpeed) {
+        if (Double.isNaN(temperature) || Double.isNaN(windSpeed)) {
+            return Double.NaN;
+        }
+        double speed = windSpeed * 3.6;
+        if (temperature > WIND_CHILL_MAX_TEMPERATURE || speed <= WIND_CHILL_MIN_SPEED) {
+            return temperature;
+        }
+        double factor = Math.pow(speed, 0.16);
+        return 13.12 + 0.6215 * temperature - 11.37 * factor + 0.3965 * temperature * factor;
+    }
+
+    /**
+     * Compares the pressure with the newest observation at least three hours old, scaled to three hours if that one
+     * is older.
+     */
+    private double pressureTendency() {
+        long now = times[head];
+        for (int i = 1; i < size; i++) {
+            int index = (head - i + CAPACITY) % CAPACITY;
+            long age = now - times[index];
+            if (age >= TENDENCY_PERIOD) {
+                return age <= TENDENCY_MAX_AGE
+                        ? (pressures[head] - pressures[index]) * TENDENCY_PERIOD / age
+                        : Double.NaN;
+            }
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Takes the slope between the current temperature and the oldest one within the trend period.
+     */
+    private double temperatureTrend() {
+        long now = times[head];
+        int oldest = -1;
+        for (int i = 1; i < size; i++) {
+            int index = (head - i + CAPACITY) % CAPACITY;
+            if (now - times[index] > TREND_PERIOD) {
+                break;
+            }
+            oldest = index;
+        }
+        if (oldest < 0 || now - times[oldest] < TREND_MIN_PERIOD) {
+            return Double.NaN;
+        }
+        return (temperatures[head] - temperatures[oldest]) * HOUR_MILLIS / (now - times[oldest]);
+    }
+
+    private static int previous(int index) {
+        return (index - 1 + CAPACITY) % CAPACITY;
+    }
+
+    private static double valueOf(int value) {
+        return value == YandexWeatherSnapshot.ABSENT_INT ? Double.NaN : value;
+    }
+
+    private static double round(double value) {
+        return Double.isNaN(value) ? value : Math.round(value * 10) / 10.0;
+    }
+}
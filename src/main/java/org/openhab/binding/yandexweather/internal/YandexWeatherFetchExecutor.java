@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.yandexweather.internal;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link YandexWeatherFetchExecutor} runs location requests of one bridge in parallel on a shared pool, but never
+ * more than the configured number at a time. Tasks above the cap wait in a FIFO queue. A task that throws is logged,
+ * it doesn't stop the others.
+ *
+ * @author Petr Shatsillo - Initial contribution
+ */
+@NonNullByDefault
+public class YandexWeatherFetchExecutor {
+    private final Logger logger = LoggerFactory.getLogger(YandexWeatherFetchExecutor.class);
+    private final Executor executor;
+    private final Queue<Runnable> pending = new ArrayDeque<>();
+    private final Set<FutureTask<?>> running = new HashSet<>();
+    private int maxConcurrentRequests = 1;
+
+    public YandexWeatherFetchExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    public synchronized void setMaxConcurrentRequests(int maxConcurrentRequests) {
+        this.maxConcurrentRequests = Math.max(1, maxConcurrentRequests);
+        drain();
+    }
+
+    public synchronized void submit(Runnable task) {
+        pending.add(task);
+        drain();
+    }
+
+    /**
+     * Drops all queued tasks and interrupts the running ones.
+     */
+    public synchronized void cancelAll() {
+        pending.clear();
+        for (FutureTask<?> task : new HashSet<>(running)) {
+            task.cancel(true);
+        }
+        running.clear();
+    }
+
+    private synchronized void drain() {
+        while (running.size() < maxConcurrentRequests) {
+            Runnable next = pending.poll();
+            if (next == null) {
+                return;
+            }
+            FutureTask<?> task = new FutureTask<Void>(() -> run(next), null) {
+                @Override
+                protected void done() {
+                    finished(this);
+                }
+            };
+            running.add(task);
+            executor.execute(task);
+        }
+    }
+
+    /**
+     * Runs a task, logging what it throws. A {@link FutureTask} would keep the exception for a {@code get()} nobody
+     * calls.
+     */
+    private void run(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            logger.warn("Weather request task failed", e);
+        }
+    }
+
+    private synchronized void finished(FutureTask<?> task) {
+        if (running.remove(task)) {
+            drain();
+        }
+    }
+}
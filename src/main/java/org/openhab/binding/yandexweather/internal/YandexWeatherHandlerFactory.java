@@ -26,7 +26,9 @@ import org.openhab.core.thing.ThingTypeUID;
 import org.openhab.core.thing.binding.BaseThingHandlerFactory;
 import org.openhab.core.thing.binding.ThingHandler;
 import org.openhab.core.thing.binding.ThingHandlerFactory;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,6 +43,12 @@ import org.slf4j.LoggerFactory;
 public class YandexWeatherHandlerFactory extends BaseThingHandlerFactory {
     final Logger logger = LoggerFactory.getLogger(YandexWeatherHandlerFactory.class);
     static final Set<ThingTypeUID> SUPPORTED_THING_TYPES_UIDS = Set.of(THING_YANDEXWEATHER, THING_TYPE_API_BRIDGE);
+    private final YandexWeatherService weatherService;
+
+    @Activate
+    public YandexWeatherHandlerFactory(final @Reference YandexWeatherService weatherService) {
+        this.weatherService = weatherService;
+    }
 
     @Override
     public boolean supportsThingType(ThingTypeUID thingTypeUID) {
@@ -53,7 +61,7 @@ public class YandexWeatherHandlerFactory extends BaseThingHandlerFactory {
         if (THING_YANDEXWEATHER.equals(thingTypeUID)) {
             return new YandexWeatherHandler(thing);
         } else if (THING_TYPE_API_BRIDGE.equals(thingTypeUID)) {
-            return new YandexWeatherBridgeHandler((Bridge) thing);
+            return new YandexWeatherBridgeHandler((Bridge) thing, weatherService);
         }
         logger.error("createHandler for unknown thing type uid {}. Thing label was: {}", thing.getThingTypeUID(),
                 thing.getLabel());
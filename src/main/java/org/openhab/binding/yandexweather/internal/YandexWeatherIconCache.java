@@ -0,0 +1,266 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.yandexweather.internal;
+
+import static org.openhab.binding.yandexweather.internal.YandexWeatherBindingConstants.ICON_URL;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.library.types.RawType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link YandexWeatherIconCache} keeps the weather icons of a bridge, keyed by icon code. Yandex only has a small
+ * fixed set of icons, so each one is downloaded once, kept as a ready {@link RawType} in a small LRU and stored on
+ * disk. Entries older than a day are revalidated with a conditional request; if that fails, the cached icon is used
+ * for another hour before the next attempt. Downloads run on the given executor, and concurrent requests for the same
+ * icon share one download.
+ *
+ * @author Petr Shatsillo - Initial contribution
+ */
+@NonNullByDefault
+public class YandexWeatherIconCache {
+    private static final int MAX_ENTRIES = 64;
+    private static final long REVALIDATE_AFTER = TimeUnit.DAYS.toMillis(1);
+    /** Time to keep using a cached icon after a failed revalidation before trying again */
+    private static final long RETRY_AFTER = TimeUnit.HOURS.toMillis(1);
+    private static final Pattern ICON_CODE = Pattern.compile("[A-Za-z0-9_+-]+");
+    private static final String MIME_TYPE = "image/svg+xml";
+
+    private final Logger logger = LoggerFactory.getLogger(YandexWeatherIconCache.class);
+    private final YandexWeatherApiClient.Transport transport;
+    private final Path directory;
+    private final Executor executor;
+    private final Map<String, CompletableFuture<RawType>> downloads = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.@Nullable Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    public YandexWeatherIconCache(YandexWeatherApiClient.Transport transport, Path directory, Executor executor) {
+        this.transport = transport;
+        this.directory = directory;
+        this.executor = executor;
+    }
+
+    /**
+     * @return the icon, completed at once if it is fresh in memory, otherwise when it has been loaded or downloaded
+     */
+    public CompletableFuture<RawType> getIconAsync(String code) {
+        synchronized (entries) {
+            Entry entry = entries.get(code);
+            if (entry != null && System.currentTimeMillis() - entry.validated < REVALIDATE_AFTER) {
+                hits.increment();
+                return CompletableFuture.completedFuture(entry.image);
+            }
+        }
+        misses.increment();
+        CompletableFuture<RawType> download = downloads.computeIfAbsent(code,
+                key -> CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return getIcon(key);
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                }, executor));
+        // registered outside of computeIfAbsent: a download that already finished runs this at once, and it must
+        // find its own entry in the map to remove it
+        download.whenComplete((image, error) -> downloads.remove(code, download));
+        return download;
+    }
+
+    /**
+     * @return the number of lookups served from memory
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of lookups that had to load the icon from disk or download it
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Starts loading the given icons in the background, so they are ready when the channels ask for them.
+     */
+    public void prefetch(Collection<String> codes) {
+        for (String code : codes) {
+            getIconAsync(code).exceptionally(e -> {
+                logger.debug("Can't prefetch icon {}: {}", code, e.getMessage());
+                return null;
+            });
+        }
+    }
+
+    /**
+     * @return the icon, from memory or disk if possible
+     * @throws IOException if the icon is not cached and can't be downloaded
+     */
+    public RawType getIcon(String code) throws IOException {
+        if (!ICON_CODE.matcher(code).matches()) {
+            throw new IOException("Invalid icon code " + code);
+        }
+        Entry entry = get(code);
+        long now = System.currentTimeMillis();
+        if (entry != null && now - entry.validated < REVALIDATE_AFTER) {
+            return entry.image;
+        }
+        try {
+            entry = download(code, entry, now);
+            put(code, entry);
+            store(code, entry);
+        } catch (IOException e) {
+            if (entry == null) {
+                throw e;
+            }
+            logger.debug("Can't revalidate icon {}, using cached one: {}", code, e.getMessage());
+            entry = new Entry(entry.image, entry.etag, entry.lastModified, now - REVALIDATE_AFTER + RETRY_AFTER);
+            put(code, entry);
+        }
+        return entry.image;
+    }
+
+    private Entry download(String code, @Nullable Entry cached, long now) throws IOException {
+        HttpRequest.Builder request = YandexWeatherApiClient.newRequest(URI.create(String.format(ICON_URL, code)));
+        if (cached != null) {
+            String etag = cached.etag;
+            String lastModified = cached.lastModified;
+            if (etag != null) {
+                request.header("If-None-Match", etag);
+            }
+            if (lastModified != null) {
+                request.header("If-Modified-Since", lastModified);
+            }
+        }
+        try {
+            HttpResponse<InputStream> response = transport.send(request.build());
+            try (InputStream body = response.body()) {
+                if (cached != null && response.statusCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                    return new Entry(cached.image, cached.etag, cached.lastModified, now);
+                } else if (response.statusCode() != HttpURLConnection.HTTP_OK) {
+                    throw new IOException("Icon " + code + " responded with HTTP " + response.statusCode());
+                }
+                return new Entry(new RawType(body.readAllBytes(), MIME_TYPE),
+                        response.headers().firstValue("ETag").orElse(null),
+                        response.headers().firstValue("Last-Modified").orElse(null), now);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Icon download interrupted");
+        }
+    }
+
+    private @Nullable Entry get(String code) {
+        synchronized (entries) {
+            Entry entry = entries.get(code);
+            if (entry != null) {
+                return entry;
+            }
+        }
+        Entry entry = load(code);
+        if (entry != null) {
+            put(code, entry);
+        }
+        return entry;
+    }
+
+    private void put(String code, Entry entry) {
+        synchronized (entries) {
+            entries.put(code, entry);
+        }
+    }
+
+    private @Nullable Entry load(String code) {
+        Path image = directory.resolve(code + ".svg");
+        Path meta = directory.resolve(code + ".properties");
+        if (!Files.isRegularFile(image) || !Files.isRegularFile(meta)) {
+            return null;
+        }
+        try (InputStream in = Files.newInputStream(meta)) {
+            Properties properties = new Properties();
+            properties.load(in);
+            return new Entry(new RawType(Files.readAllBytes(image), MIME_TYPE), properties.getProperty("etag"),
+                    properties.getProperty("lastModified"),
+                    Long.parseLong(properties.getProperty("validated", "0")));
+        } catch (IOException | NumberFormatException e) {
+            logger.debug("Can't read cached icon {}: {}", code, e.getMessage());
+            return null;
+        }
+    }
+
+    private void store(String code, Entry entry) {
+        Properties properties = new Properties();
+        String etag = entry.etag;
+        String lastModified = entry.lastModified;
+        if (etag != null) {
+            properties.setProperty("etag", etag);
+        }
+        if (lastModified != null) {
+            properties.setProperty("lastModified", lastModified);
+        }
+        properties.setProperty("validated", Long.toString(entry.validated));
+        try {
+            YandexWeatherFiles.writeAtomically(directory.resolve(code + ".svg"),
+                    out -> out.write(entry.image.getBytes()));
+            YandexWeatherFiles.writeAtomically(directory.resolve(code + ".properties"),
+                    out -> properties.store(out, null));
+        } catch (IOException e) {
+            logger.debug("Can't store icon {}: {}", code, e.getMessage());
+        }
+    }
+
+    private static class Entry {
+        private final RawType image;
+        private final @Nullable String etag;
+        private final @Nullable String lastModified;
+        private final long validated;
+
+        Entry(RawType image, @Nullable String etag, @Nullable String lastModified, long validated) {
+            this.image = image;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.validated = validated;
+        }
+    }
+}
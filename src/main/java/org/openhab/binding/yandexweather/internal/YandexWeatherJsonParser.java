@@ -12,492 +12,770 @@
  */
 package org.openhab.binding.yandexweather.internal;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherCondition;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherDaytime;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherFact;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherForecastPart;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherForecastSeries;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherPartName;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherSeason;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherSnapshot;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherWindDirection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
 /**
- * The {@link YandexWeatherJsonParser} is responsible for Yandex API parsing, which are
- * sent to one of the channels.
+ * The {@link YandexWeatherJsonParser} is responsible for Yandex API parsing. It decodes a response in a single pass
+ * straight from the reader into a {@link YandexWeatherSnapshot}, without building the whole body or a JSON tree.
+ * Only the fields used by the binding are kept, everything else is skipped. Day parts and hours of a forecast
+ * response go into columnar series whose size is fixed by the requested horizon. The order of the fields doesn't
+ * matter, and a value that isn't a number where one is expected is absent rather than failing the response.
  *
  * @author Petr Shatsillo - Initial contribution
  */
 @NonNullByDefault
 public class YandexWeatherJsonParser {
-    final Logger logger = LoggerFactory.getLogger(YandexWeatherJsonParser.class);
-    private String dayTime = "";
-    private String locality = "";
-    private String factTemperature = "";
-    private String factFeelsLike = "";
-    private String factIcon = "";
-    private String factCondition = "";
-    private String factCloudness = "";
-    private String factIsThunder = "";
-    private String factWindSpeed = "";
-    private String factWindDir = "";
-    private String factPressureMM = "";
-    private String factHumidity = "";
-    private String factDaytime = "";
-    private String factSeason = "";
-    private String factSoilMoisture = "";
-    private String factSoilTemp = "";
-    private String factUvIndex = "";
-    private String factWindGust = "";
-    private String forecastWeekNo = "";
-    private String forecastSunrise = "";
-    private String forecastSunset = "";
-    private String forecastRiseBegin = "";
-    private String forecastSetEnd = "";
-    private String forecastMoonCode = "";
-    private String forecastMagneticFieldIndex = "";
-    private String forecastNextFeelsLike = "";
-    private String forecastFutureFeelsLike = "";
-    private String forecastNextIcon = "";
-    private String forecastFutureIcon = "";
-    private String forecastNextCondition = "";
-    private String forecastFutureCondition = "";
-    private String forecastNextWindSpeed = "";
-    private String forecastFutureWindSpeed = "";
-    private String forecastNextWindDir = "";
-    private String forecastFutureWindDir = "";
-    private String forecastNextPressureMM = "";
-    private String forecastFuturePressureMM = "";
-    private String forecastNextHumidity = "";
-    private String forecastFutureHumidity = "";
-    private String forecastNextWindGust = "";
-    private String forecastFutureWindGust = "";
-    private String forecastFutureDaytime = "";
-    private String forecastNextDaytime = "";
-    private String partNameNext = "";
-    private String partNameFuture = "";
-    private String tempMinNext = "";
-    private String tempMinFuture = "";
-    private String tempAvgNext = "";
-    private String tempAvgFuture = "";
-    private String tempMaxNext = "";
-    private String tempMaxFuture = "";
-    private String forecastNextPrecMM = "";
-    private String forecastFuturePrecMM = "";
-    private String forecastNextPrecProb = "";
-    private String forecastFuturePrecProb = "";
-    private String forecastNextPrecPeriod = "";
-    private String forecastFuturePrecPeriod = "";
-    private String futureTempWater = "";
-    private String forecastTempWater = "";
-    private String factTempWater = "";
-
-    public YandexWeatherJsonParser(String response) {
-        try {
-            JsonObject jsonobj = JsonParser.parseString(response).getAsJsonObject();
-            // JsonObject jsonobj = json.getAsJsonObject();
-            dayTime = jsonobj.get("now_dt").getAsString();
-            if (jsonobj.has("geo_object")) {
-                locality = jsonobj.get("geo_object").getAsJsonObject().get("locality").getAsJsonObject().get("name")
-                        .getAsString();
+    private static final Logger LOGGER = LoggerFactory.getLogger(YandexWeatherJsonParser.class);
+    private static final int FORECAST_PARTS = 2;
+    private static final int PARTS_PER_DAY = 4;
+    private static final long HOUR_MILLIS = TimeUnit.HOURS.toMillis(1);
+    /** Hours kept beyond the horizon while {@code now} is unknown, the hours of the first day that may be over */
+    private static final int HOURS_PER_DAY = 24;
+    /** Days of a forecast response searched for the parts following the current one */
+    private static final int CANDIDATE_DAYS = 2;
+
+    private final YandexWeatherSnapshot.Builder snapshot = new YandexWeatherSnapshot.Builder();
+    private final List<YandexWeatherForecastPart> parts = new ArrayList<>(FORECAST_PARTS);
+    private final List<TimedPart> candidateParts = new ArrayList<>(CANDIDATE_DAYS * PARTS_PER_DAY);
+    private final int maxDays;
+    private final int maxHours;
+    private final YandexWeatherForecastSeries.Builder dayParts;
+    private final YandexWeatherForecastSeries.Builder hourly;
+    private boolean hasForecasts = false;
+    /** Set if hours were read before {@code now}, so the ones already over are only removed at the end */
+    private boolean hoursBeforeNow = false;
+    private long now = YandexWeatherSnapshot.ABSENT_TIME;
+    private @Nullable ZoneId zone;
+    private @Nullable String date;
+    private @Nullable String sunrise;
+    private @Nullable String sunset;
+    private @Nullable String riseBegin;
+    private @Nullable String setEnd;
+
+    private YandexWeatherJsonParser(int maxDays, int maxHours) {
+        this.maxDays = Math.max(0, maxDays);
+        this.maxHours = Math.max(0, maxHours);
+        dayParts = new YandexWeatherForecastSeries.Builder(Math.max(this.maxDays * PARTS_PER_DAY, FORECAST_PARTS));
+        hourly = new YandexWeatherForecastSeries.Builder(this.maxHours > 0 ? this.maxHours + HOURS_PER_DAY : 0);
+    }
+
+    /**
+     * Decodes an informers or forecast response without its forecast series.
+     *
+     * @throws IOException if the response can't be read or is not a weather response
+     */
+    public static YandexWeatherSnapshot parse(Reader response) throws IOException {
+        return parse(response, 0, 0);
+    }
+
+    /**
+     * Decodes an informers or forecast response. The day parts of at most {@code maxDays} days and at most
+     * {@code maxHours} hours from now on are kept as forecast series.
+     *
+     * @throws IOException if the response can't be read or is not a weather response
+     */
+    public static YandexWeatherSnapshot parse(Reader response, int maxDays, int maxHours) throws IOException {
+        YandexWeatherJsonParser parser = new YandexWeatherJsonParser(maxDays, maxHours);
+        try (JsonReader reader = new JsonReader(response)) {
+            reader.setLenient(true);
+            parser.readResponse(reader);
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new IOException("Parse error " + e.getLocalizedMessage(), e);
+        }
+        return parser.build();
+    }
+
+    private void readResponse(JsonReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "now":
+                    double seconds = nextDouble(reader);
+                    now = Double.isNaN(seconds) ? YandexWeatherSnapshot.ABSENT_TIME : (long) (seconds * 1000);
+                    break;
+                case "now_dt":
+                    snapshot.observationTime = toEpoch(nextString(reader));
+                    break;
+                case "info":
+                    readInfo(reader);
+                    break;
+                case "geo_object":
+                    readGeoObject(reader);
+                    break;
+                case "fact":
+                    snapshot.fact = readFact(reader);
+                    break;
+                case "forecast":
+                    readForecast(reader);
+                    break;
+                case "forecasts":
+                    readForecasts(reader);
+                    break;
+                default:
+                    reader.skipValue();
             }
-            if (jsonobj.has("fact")) {
-                factTemperature = jsonobj.get("fact").getAsJsonObject().get("temp").getAsString();
-                factFeelsLike = jsonobj.get("fact").getAsJsonObject().get("feels_like").getAsString();
-                factIcon = "https://yastatic.net/weather/i/icons/funky/dark/"
-                        + jsonobj.get("fact").getAsJsonObject().get("icon").getAsString() + ".svg";
-                factCondition = jsonobj.get("fact").getAsJsonObject().get("condition").getAsString();
-                if (jsonobj.get("fact").getAsJsonObject().has("cloudness")) {
-                    factCloudness = jsonobj.get("fact").getAsJsonObject().get("cloudness").getAsString();
-                }
-                if (jsonobj.get("fact").getAsJsonObject().has("is_thunder")) {
-                    factIsThunder = jsonobj.get("fact").getAsJsonObject().get("is_thunder").getAsString();
-                }
-                factWindSpeed = jsonobj.get("fact").getAsJsonObject().get("wind_speed").getAsString();
-                factWindDir = jsonobj.get("fact").getAsJsonObject().get("wind_dir").getAsString();
-                factPressureMM = jsonobj.get("fact").getAsJsonObject().get("pressure_mm").getAsString();
-                factHumidity = jsonobj.get("fact").getAsJsonObject().get("humidity").getAsString();
-                factDaytime = jsonobj.get("fact").getAsJsonObject().get("daytime").getAsString();
-                factSeason = jsonobj.get("fact").getAsJsonObject().get("season").getAsString();
-                if (jsonobj.get("fact").getAsJsonObject().has("soil_moisture")) {
-                    factSoilMoisture = jsonobj.get("fact").getAsJsonObject().get("soil_moisture").getAsString();
-                }
-                if (jsonobj.get("fact").getAsJsonObject().has("soil_temp")) {
-                    factSoilTemp = jsonobj.get("fact").getAsJsonObject().get("soil_temp").getAsString();
-                }
-                if (jsonobj.get("fact").getAsJsonObject().has("uv_index")) {
-                    factUvIndex = jsonobj.get("fact").getAsJsonObject().get("uv_index").getAsString();
+        }
+        reader.endObject();
+    }
+
+    private YandexWeatherSnapshot build() {
+        if (hasForecasts) {
+            // the parts of an informers forecast read before the forecasts array have no times, they are replaced
+            parts.clear();
+            selectNextParts();
+        } else {
+            addInformersParts();
+        }
+        if (hoursBeforeNow && now != YandexWeatherSnapshot.ABSENT_TIME) {
+            hourly.removeBefore(now - HOUR_MILLIS + 1);
+        }
+        hourly.truncate(maxHours);
+        snapshot.parts = parts;
+        snapshot.dayParts = dayParts.build();
+        snapshot.hourly = hourly.build();
+        snapshot.sunrise = toEpoch(date, sunrise);
+        snapshot.sunset = toEpoch(date, sunset);
+        snapshot.riseBegin = toEpoch(date, riseBegin);
+        snapshot.setEnd = toEpoch(date, setEnd);
+        return snapshot.build();
+    }
+
+    private void readInfo(JsonReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("tzinfo".equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if ("offset".equals(reader.nextName())) {
+                        int offset = nextInt(reader);
+                        try {
+                            if (offset != YandexWeatherSnapshot.ABSENT_INT) {
+                                zone = ZoneOffset.ofTotalSeconds(offset);
+                            }
+                        } catch (DateTimeException e) {
+                            LOGGER.debug("Ignoring time zone offset {}", offset);
+                        }
+                    } else {
+                        reader.skipValue();
+                    }
                 }
-                factWindGust = jsonobj.get("fact").getAsJsonObject().get("wind_gust").getAsString();
+                reader.endObject();
+            } else {
+                reader.skipValue();
             }
-            if (!jsonobj.has("forecasts")) {
-                if (jsonobj.has("forecast")) {
-                    forecastWeekNo = jsonobj.get("forecast").getAsJsonObject().get("week").getAsString();
-                    forecastSunrise = jsonobj.get("forecast").getAsJsonObject().get("sunrise").getAsString();
-                    forecastSunset = jsonobj.get("forecast").getAsJsonObject().get("sunset").getAsString();
-                    forecastMoonCode = jsonobj.get("forecast").getAsJsonObject().get("moon_code").getAsString();
+        }
+        reader.endObject();
+    }
+
+    private void readGeoObject(JsonReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("locality".equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if ("name".equals(reader.nextName())) {
+                        snapshot.locality = nextString(reader);
+                    } else {
+                        reader.skipValue();
+                    }
                 }
+                reader.endObject();
             } else {
-                forecastWeekNo = jsonobj.get("forecasts").getAsJsonArray().get(0).getAsJsonObject().get("week")
-                        .getAsString();
-                forecastSunrise = jsonobj.get("forecasts").getAsJsonArray().get(0).getAsJsonObject().get("sunrise")
-                        .getAsString();
-                forecastSunset = jsonobj.get("forecasts").getAsJsonArray().get(0).getAsJsonObject().get("sunset")
-                        .getAsString();
-                forecastRiseBegin = jsonobj.get("forecasts").getAsJsonArray().get(0).getAsJsonObject().get("rise_begin")
-                        .getAsString();
-                forecastSetEnd = jsonobj.get("forecasts").getAsJsonArray().get(0).getAsJsonObject().get("set_end")
-                        .getAsString();
-                forecastMoonCode = jsonobj.get("forecasts").getAsJsonArray().get(0).getAsJsonObject().get("moon_code")
-                        .getAsString();
-                forecastMagneticFieldIndex = jsonobj.get("forecasts").getAsJsonArray().get(0).getAsJsonObject()
-                        .get("biomet").getAsJsonObject().get("index").getAsString();
+                reader.skipValue();
             }
-            if (jsonobj.has("forecast")) {
-                partNameNext = jsonobj.get("forecast").getAsJsonObject().get("parts").getAsJsonArray().get(0)
-                        .getAsJsonObject().get("part_name").getAsString();
-                partNameFuture = jsonobj.get("forecast").getAsJsonObject().get("parts").getAsJsonArray().get(1)
-                        .getAsJsonObject().get("part_name").getAsString();
-
-                tempMinNext = jsonobj.get("forecast").getAsJsonObject().get("parts").getAsJsonArray().get(0)
-                        .getAsJsonObject().get("temp_min").getAsString();
-                tempMinFuture = jsonobj.get("forecast").getAsJsonObject().get("parts").getAsJsonArray().get(1)
-                        .getAsJsonObject().get("temp_min").getAsString();
-
-                tempAvgNext = jsonobj.get("forecast").getAsJsonObject().get("parts").getAsJsonArray().get(0)
-                        .getAsJsonObject().get("temp_avg").getAsString();
-                tempAvgFuture = jsonobj.get("forecast").getAsJsonObject().get("parts").getAsJsonArray().get(1)
-                        .getAsJsonObject().get("temp_avg").getAsString();
-
-                tempMaxNext = jsonobj.get("forecast").getAsJsonObject().get("parts").getAsJsonArray().get(0)
-                        .getAsJsonObject().get("temp_max").getAsString();
-                tempMaxFuture = jsonobj.get("forecast").getAsJsonObject().get("parts").getAsJsonArray().get(1)
-                        .getAsJsonObject().get("temp_max").getAsString();
-
-                forecastNextWindSpeed = jsonobj.get("forecast").getAsJsonObject().get("parts").getAsJsonArray().get(0)
-                        .getAsJsonObject().get("wind_speed").getAsString();
-                forecastFutureWindSpeed = jsonobj.get("forecast").getAsJsonObject().get("parts").getAsJsonArray().get(1)
-                        .getAsJsonObject().get("wind_speed").getAsString();
-
-                forecastNextWindGust = jsonobj.get("forecast").getAsJsonObject().get("parts").getAsJsonArray().get(0)
-                        .getAsJsonObject().get("wind_gust").getAsString();
-                forecastFutureWindGust = jsonobj.get("forecast").getAsJsonObject().get("parts").getAsJsonArray().get(1)
-                        .getAsJsonObject().get("wind_gust").getAsString();
-
-                forecastNextWindDir = jsonobj.get("forecast").getAsJsonObject().get("parts").getAsJsonArray().get(0)
-                        .getAsJsonObject().get("wind_dir").getAsString();
-                forecastFutureWindDir = jsonobj.get("forecast").getAsJsonObject().get("parts").getAsJsonArray().get(1)
-                        .getAsJsonObject().get("wind_dir").getAsString();
-
-                forecastNextPressureMM = jsonobj.get("forecast").getAsJsonObject().get("parts").getAsJsonArray().get(0)
-                        .getAsJsonObject().get("pressure_mm").getAsString();
-                forecastFuturePressureMM = jsonobj.get("forecast").getAsJsonObject().get("parts").getAsJsonArray()
-                        .get(1).getAsJsonObject().get("pressure_mm").getAsString();
-
-                forecastNextHumidity = jsonobj.get("forecast").getAsJsonObject().get("parts").getAsJsonArray().get(0)
-                        .getAsJsonObject().get("humidity").getAsString();
-                forecastFutureHumidity = jsonobj.get("forecast").getAsJsonObject().get("parts").getAsJsonArray().get(1)
-                        .getAsJsonObject().get("humidity").getAsString();
-                forecastNextPrecMM = jsonobj.get("forecast").getAsJsonObject().get("parts").getAsJsonArray().get(0)
-                        .getAsJsonObject().get("prec_mm").getAsString();
-                forecastFuturePrecMM = jsonobj.get("forecast").getAsJsonObject().get("parts").getAsJsonArray().get(1)
-                        .getAsJsonObject().get("prec_mm").getAsString();
-
-                forecastNextPrecProb = jsonobj.get("forecast").getAsJsonObject().get("parts").getAsJsonArray().get(0)
-                        .getAsJsonObject().get("prec_prob").getAsString();
-                forecastFuturePrecProb = jsonobj.get("forecast").getAsJsonObject().get("parts").getAsJsonArray().get(1)
-                        .getAsJsonObject().get("prec_prob").getAsString();
-
-                forecastNextPrecPeriod = jsonobj.get("forecast").getAsJsonObject().get("parts").getAsJsonArray().get(0)
-                        .getAsJsonObject().get("prec_period").getAsString();
-                forecastFuturePrecPeriod = jsonobj.get("forecast").getAsJsonObject().get("parts").getAsJsonArray()
-                        .get(1).getAsJsonObject().get("prec_period").getAsString();
-
-                forecastNextIcon = "https://yastatic.net/weather/i/icons/funky/dark/"
-                        + jsonobj.get("forecast").getAsJsonObject().get("parts").getAsJsonArray().get(0)
-                                .getAsJsonObject().get("icon").getAsString()
-                        + ".svg";
-                forecastFutureIcon = "https://yastatic.net/weather/i/icons/funky/dark/"
-                        + jsonobj.get("forecast").getAsJsonObject().get("parts").getAsJsonArray().get(1)
-                                .getAsJsonObject().get("icon").getAsString()
-                        + ".svg";
-
-                forecastNextCondition = jsonobj.get("forecast").getAsJsonObject().get("parts").getAsJsonArray().get(0)
-                        .getAsJsonObject().get("condition").getAsString();
-                forecastFutureCondition = jsonobj.get("forecast").getAsJsonObject().get("parts").getAsJsonArray().get(1)
-                        .getAsJsonObject().get("condition").getAsString();
-
-                forecastNextFeelsLike = jsonobj.get("forecast").getAsJsonObject().get("parts").getAsJsonArray().get(0)
-                        .getAsJsonObject().get("feels_like").getAsString();
-                forecastFutureFeelsLike = jsonobj.get("forecast").getAsJsonObject().get("parts").getAsJsonArray().get(1)
-                        .getAsJsonObject().get("feels_like").getAsString();
-
-                forecastNextDaytime = jsonobj.get("forecast").getAsJsonObject().get("parts").getAsJsonArray().get(0)
-                        .getAsJsonObject().get("daytime").getAsString();
-                forecastFutureDaytime = jsonobj.get("forecast").getAsJsonObject().get("parts").getAsJsonArray().get(1)
-                        .getAsJsonObject().get("daytime").getAsString();
-                if (jsonobj.get("fact").getAsJsonObject().has("temp_water")) {
-                    factTempWater = jsonobj.get("fact").getAsJsonObject().get("temp_water").getAsString();
-                }
-                if (jsonobj.get("forecast").getAsJsonObject().get("parts").getAsJsonArray().get(0).getAsJsonObject()
-                        .has("temp_water")) {
-                    forecastTempWater = jsonobj.get("forecast").getAsJsonObject().get("parts").getAsJsonArray().get(0)
-                            .getAsJsonObject().get("temp_water").getAsString();
-                }
-                if (jsonobj.get("forecast").getAsJsonObject().get("parts").getAsJsonArray().get(1).getAsJsonObject()
-                        .has("temp_water")) {
-                    futureTempWater = jsonobj.get("forecast").getAsJsonObject().get("parts").getAsJsonArray().get(1)
-                            .getAsJsonObject().get("temp_water").getAsString();
-                }
+        }
+        reader.endObject();
+    }
+
+    private YandexWeatherFact readFact(JsonReader reader) throws IOException {
+        YandexWeatherFact.Builder fact = new YandexWeatherFact.Builder();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "temp":
+                    fact.temperature = nextInt(reader);
+                    break;
+                case "feels_like":
+                    fact.feelsLike = nextInt(reader);
+                    break;
+                case "temp_water":
+                    fact.tempWater = nextInt(reader);
+                    break;
+                case "icon":
+                    fact.icon = nextString(reader);
+                    break;
+                case "condition":
+                    fact.condition = nextCondition(reader);
+                    break;
+                case "cloudness":
+                    fact.cloudness = nextDouble(reader);
+                    break;
+                case "is_thunder":
+                    fact.thunder = nextBoolean(reader);
+                    break;
+                case "wind_speed":
+                    fact.windSpeed = nextDouble(reader);
+                    break;
+                case "wind_dir":
+                    fact.windDir = nextWindDirection(reader);
+                    break;
+                case "pressure_mm":
+                    fact.pressureMm = nextInt(reader);
+                    break;
+                case "humidity":
+                    fact.humidity = nextInt(reader);
+                    break;
+                case "daytime":
+                    fact.daytime = nextDaytime(reader);
+                    break;
+                case "season":
+                    String season = nextString(reader);
+                    fact.season = season == null ? null : YandexWeatherSeason.fromCode(season);
+                    break;
+                case "soil_moisture":
+                    fact.soilMoisture = nextDouble(reader);
+                    break;
+                case "soil_temp":
+                    fact.soilTemp = nextInt(reader);
+                    break;
+                case "uv_index":
+                    fact.uvIndex = nextInt(reader);
+                    break;
+                case "wind_gust":
+                    fact.windGust = nextDouble(reader);
+                    break;
+                default:
+                    reader.skipValue();
             }
-
-        } catch (Exception ex) {
-            logger.info("Parse error {}", ex.getLocalizedMessage());
         }
+        reader.endObject();
+        return fact.build();
+    }
+
+    /**
+     * Reads the {@code forecast} object of the informers response. Day values are only taken from it if the response
+     * has no {@code forecasts} array, which has precedence.
+     */
+    private void readForecast(JsonReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("parts".equals(name)) {
+                readParts(reader);
+            } else if (hasForecasts) {
+                reader.skipValue();
+            } else {
+                readDayValue(reader, name);
+            }
+        }
+        reader.endObject();
     }
 
-    public String getDayTime() {
-        return dayTime;
-    }
-
-    public String getLocality() {
-        return locality;
-    }
-
-    public String getFactTemperature() {
-        return factTemperature;
-    }
-
-    public String getFactFeelsLike() {
-        return factFeelsLike;
-    }
-
-    public String getFactIcon() {
-        return factIcon;
-    }
-
-    public String getFactCondition() {
-        return factCondition;
-    }
-
-    public String getFactCloudness() {
-        return factCloudness;
-    }
-
-    public String getFactIsThunder() {
-        return factIsThunder;
-    }
-
-    public String getFactWindSpeed() {
-        return factWindSpeed;
-    }
-
-    public String getFactWindDir() {
-        return factWindDir;
-    }
-
-    public String getFactPressureMM() {
-        return factPressureMM;
-    }
-
-    public String getFactHumidity() {
-        return factHumidity;
-    }
-
-    public String getFactDaytime() {
-        return factDaytime;
-    }
-
-    public String getFactSeason() {
-        return factSeason;
-    }
-
-    public String getFactSoilMoisture() {
-        return factSoilMoisture;
-    }
-
-    public String getFactSoilTemp() {
-        return factSoilTemp;
-    }
-
-    public String getFactUvIndex() {
-        return factUvIndex;
-    }
-
-    public String getFactWindGust() {
-        return factWindGust;
-    }
-
-    public String getForecastWeekNo() {
-        return forecastWeekNo;
-    }
-
-    public String getForecastSunrise() {
-        return forecastSunrise;
-    }
-
-    public String getForecastSunset() {
-        return forecastSunset;
-    }
-
-    public String getForecastRiseBegin() {
-        return forecastRiseBegin;
-    }
-
-    public String getForecastSetEnd() {
-        return forecastSetEnd;
-    }
-
-    public String getForecastMoonCode() {
-        return forecastMoonCode;
-    }
-
-    public String getForecastMagneticFieldIndex() {
-        return forecastMagneticFieldIndex;
-    }
-
-    @Override
-    public String toString() {
-        return "OK";
-    }
-
-    public String getForecastNextFeelsLike() {
-        return forecastNextFeelsLike;
-    }
-
-    public String getForecastFutureFeelsLike() {
-        return forecastFutureFeelsLike;
-    }
-
-    public String getForecastNextIcon() {
-        return forecastNextIcon;
-    }
-
-    public String getForecastFutureIcon() {
-        return forecastFutureIcon;
-    }
-
-    public String getForecastNextCondition() {
-        return forecastNextCondition;
-    }
-
-    public String getForecastFutureCondition() {
-        return forecastFutureCondition;
-    }
-
-    public String getForecastNextWindSpeed() {
-        return forecastNextWindSpeed;
-    }
-
-    public String getForecastFutureWindSpeed() {
-        return forecastFutureWindSpeed;
-    }
-
-    public String getForecastNextWindDir() {
-        return forecastNextWindDir;
-    }
-
-    public String getForecastFutureWindDir() {
-        return forecastFutureWindDir;
-    }
-
-    public String getForecastNextPressureMM() {
-        return forecastNextPressureMM;
-    }
-
-    public String getForecastFuturePressureMM() {
-        return forecastFuturePressureMM;
-    }
-
-    public String getForecastNextHumidity() {
-        return forecastNextHumidity;
-    }
-
-    public String getForecastFutureHumidity() {
-        return forecastFutureHumidity;
-    }
-
-    public String getForecastNextWindGust() {
-        return forecastNextWindGust;
-    }
-
-    public String getForecastFutureWindGust() {
-        return forecastFutureWindGust;
-    }
-
-    public String getForecastNextDaytime() {
-        return forecastNextDaytime;
-    }
-
-    public String getForecastFutureDaytime() {
-        return forecastFutureDaytime;
-    }
-
-    public String getPartNameNext() {
-        return partNameNext;
-    }
-
-    public String getPartNameFuture() {
-        return partNameFuture;
-    }
-
-    public String getTempMinNext() {
-        return tempMinNext;
-    }
-
-    public String getTempMinFuture() {
-        return tempMinFuture;
+    private void readParts(JsonReader reader) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (parts.size() < FORECAST_PARTS) {
+                parts.add(readPart(reader, null));
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endArray();
+    }
+
+    private YandexWeatherForecastPart readPart(JsonReader reader, @Nullable YandexWeatherPartName partName)
+            throws IOException {
+        YandexWeatherForecastPart.Builder part = new YandexWeatherForecastPart.Builder();
+        part.partName = partName;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "part_name":
+                    String code = nextString(reader);
+                    part.partName = code == null ? null : YandexWeatherPartName.fromCode(code);
+                    break;
+                case "temp_min":
+                    part.tempMin = nextInt(reader);
+                    break;
+                case "temp_avg":
+                    part.tempAvg = nextInt(reader);
+                    break;
+                case "temp_max":
+                    part.tempMax = nextInt(reader);
+                    break;
+                case "temp_water":
+                    part.tempWater = nextInt(reader);
+                    break;
+                case "wind_speed":
+                    part.windSpeed = nextDouble(reader);
+                    break;
+                case "wind_gust":
+                    part.windGust = nextDouble(reader);
+                    break;
+                case "wind_dir":
+                    part.windDir = nextWindDirection(reader);
+                    break;
+                case "pressure_mm":
+                    part.pressureMm = nextInt(reader);
+                    break;
+                case "humidity":
+                    part.humidity = nextInt(reader);
+                    break;
+                case "prec_mm":
+                    part.precMm = nextDouble(reader);
+                    break;
+                case "prec_prob":
+                    part.precProb = nextInt(reader);
+                    break;
+                case "prec_period":
+                    part.precPeriod = nextInt(reader);
+                    break;
+                case "icon":
+                    part.icon = nextString(reader);
+                    break;
+                case "condition":
+                    part.condition = nextCondition(reader);
+                    break;
+                case "feels_like":
+                    part.feelsLike = nextInt(reader);
+                    break;
+                case "daytime":
+                    part.daytime = nextDaytime(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return part.build();
+    }
+
+    /**
+     * Reads the {@code forecasts} array of the forecast response. The day values are taken from the first day, parts
+     * and hours from every day as long as the series have room.
+     */
+    private void readForecasts(JsonReader reader) throws IOException {
+        hasForecasts = true;
+        reader.beginArray();
+        int day = 0;
+        while (reader.hasNext()) {
+            if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+                readForecastDay(reader, day);
+            } else {
+                reader.skipValue();
+            }
+            day++;
+        }
+        reader.endArray();
+    }
+
+    /**
+     * Reads a day of the {@code forecasts} array. Its parts are kept until the day is read, as their times depend on
+     * {@code date_ts}, which may come after them.
+     */
+    private void readForecastDay(JsonReader reader, int day) throws IOException {
+        long dayStart = YandexWeatherSnapshot.ABSENT_TIME;
+        List<TimedPart> partsOfDay = List.of();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            switch (name) {
+                case "date_ts":
+                    double seconds = nextDouble(reader);
+                    dayStart = Double.isNaN(seconds) ? YandexWeatherSnapshot.ABSENT_TIME : (long) (seconds * 1000);
+                    break;
+                case "parts":
+                    if ((day < maxDays || day < CANDIDATE_DAYS) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                        partsOfDay = readDayParts(reader);
+                    } else {
+                        reader.skipValue();
+                    }
+                    break;
+                case "hours":
+                    if (hasRoomForHours() && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                        readHours(reader);
+                    } else {
+                        reader.skipValue();
+                    }
+                    break;
+                default:
+                    if (day == 0) {
+                        readDayValue(reader, name);
+                    } else {
+                        reader.skipValue();
+                    }
+            }
+        }
+        reader.endObject();
+        if (dayStart == YandexWeatherSnapshot.ABSENT_TIME) {
+            return;
+        }
+        for (TimedPart part : partsOfDay) {
+            long start = dayStart + part.start();
+            if (day < CANDIDATE_DAYS) {
+                candidateParts.add(new TimedPart(start, part.part()));
+            }
+            if (day < maxDays) {
+                addDayPart(start, part.part());
+            }
+        }
     }
 
-    public String getTempAvgNext() {
-        return tempAvgNext;
+    /**
+     * Reads the {@code parts} object of a forecast day, which holds the parts by name. The short day and night
+     * summaries are skipped.
+     *
+     * @return the parts with their start relative to the start of the day
+     */
+    private List<TimedPart> readDayParts(JsonReader reader) throws IOException {
+        List<TimedPart> partsOfDay = new ArrayList<>(PARTS_PER_DAY);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            YandexWeatherPartName partName = YandexWeatherPartName.fromCode(reader.nextName());
+            if (partName == null || reader.peek() != JsonToken.BEGIN_OBJECT) {
+                reader.skipValue();
+                continue;
+            }
+            partsOfDay.add(new TimedPart(partName.getStartHour() * HOUR_MILLIS, readPart(reader, partName)));
+        }
+        reader.endObject();
+        return partsOfDay;
     }
 
-    public String getTempAvgFuture() {
-        return tempAvgFuture;
+    private boolean addDayPart(long start, YandexWeatherForecastPart part) {
+        if (!dayParts.next(start)) {
+            return false;
+        }
+        dayParts.setTemperature(part.getTempAvg());
+        dayParts.setFeelsLike(part.getFeelsLike());
+        dayParts.setWindSpeed(part.getWindSpeed());
+        dayParts.setWindGust(part.getWindGust());
+        dayParts.setPressureMm(part.getPressureMm());
+        dayParts.setHumidity(part.getHumidity());
+        dayParts.setPrecMm(part.getPrecMm());
+        dayParts.setPrecProb(part.getPrecProb());
+        return true;
+    }
+
+    /**
+     * The parts of the informers response carry only their name. Each one starts at the first start hour of its name
+     * after the previous part, beginning from the current time.
+     */
+    private void addInformersParts() {
+        long reference = now != YandexWeatherSnapshot.ABSENT_TIME ? now : snapshot.observationTime;
+        if (reference == YandexWeatherSnapshot.ABSENT_TIME) {
+            return;
+        }
+        ZoneId zone = this.zone;
+        ZonedDateTime previous = Instant.ofEpochMilli(reference).atZone(zone != null ? zone : ZoneId.systemDefault());
+        for (YandexWeatherForecastPart part : parts) {
+            YandexWeatherPartName partName = part.getPartName();
+            if (partName == null) {
+                return;
+            }
+            ZonedDateTime start = previous.toLocalDate().atTime(partName.getStartHour(), 0)
+                    .atZone(previous.getZone());
+            while (!start.isAfter(previous)) {
+                start = start.plusDays(1);
+            }
+            if (!addDayPart(start.toInstant().toEpochMilli(), part)) {
+                return;
+            }
+            previous = start;
+        }
     }
 
-    public String getTempMaxNext() {
-        return tempMaxNext;
+    /**
+     * @return true if the hourly series takes more hours: up to the horizon, or a day more while it is unknown which
+     *         hours are over
+     */
+    private boolean hasRoomForHours() {
+        return now != YandexWeatherSnapshot.ABSENT_TIME ? hourly.size() < maxHours : !hourly.isFull();
     }
 
-    public String getTempMaxFuture() {
-        return tempMaxFuture;
+    private void readHours(JsonReader reader) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (!hasRoomForHours() || reader.peek() != JsonToken.BEGIN_OBJECT) {
+                reader.skipValue();
+            } else {
+                readHour(reader);
+            }
+        }
+        reader.endArray();
+    }
+
+    /**
+     * Reads one hour into the hourly series. Hours that are already over are dropped.
+     */
+    private void readHour(JsonReader reader) throws IOException {
+        long time = YandexWeatherSnapshot.ABSENT_TIME;
+        int temperature = YandexWeatherSnapshot.ABSENT_INT;
+        int feelsLike = YandexWeatherSnapshot.ABSENT_INT;
+        double windSpeed = Double.NaN;
+        double windGust = Double.NaN;
+        int pressureMm = YandexWeatherSnapshot.ABSENT_INT;
+        int humidity = YandexWeatherSnapshot.ABSENT_INT;
+        double precMm = Double.NaN;
+        int precProb = YandexWeatherSnapshot.ABSENT_INT;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "hour_ts":
+                    double seconds = nextDouble(reader);
+                    time = Double.isNaN(seconds) ? YandexWeatherSnapshot.ABSENT_TIME : (long) (seconds * 1000);
+                    break;
+                case "temp":
+                    temperature = nextInt(reader);
+                    break;
+                case "feels_like":
+                    feelsLike = nextInt(reader);
+                    break;
+                case "wind_speed":
+                    windSpeed = nextDouble(reader);
+                    break;
+                case "wind_gust":
+                    windGust = nextDouble(reader);
+                    break;
+                case "pressure_mm":
+                    pressureMm = nextInt(reader);
+                    break;
+                case "humidity":
+                    humidity = nextInt(reader);
+                    break;
+                case "prec_mm":
+                    precMm = nextDouble(reader);
+                    break;
+                case "prec_prob":
+                    precProb = nextInt(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (now == YandexWeatherSnapshot.ABSENT_TIME) {
+            hoursBeforeNow = true;
+        }
+        if (time == YandexWeatherSnapshot.ABSENT_TIME
+                || (now != YandexWeatherSnapshot.ABSENT_TIME && time + HOUR_MILLIS <= now) || !hourly.next(time)) {
+            return;
+        }
+        hourly.setTemperature(temperature);
+        hourly.setFeelsLike(feelsLike);
+        hourly.setWindSpeed(windSpeed);
+        hourly.setWindGust(windGust);
+        hourly.setPressureMm(pressureMm);
+        hourly.setHumidity(humidity);
+        hourly.setPrecMm(precMm);
+        hourly.setPrecProb(precProb);
+    }
+
+    /**
+     * A forecast response has no list of upcoming parts like the informers one, so they are picked from the parts of
+     * the first days: the parts starting after the current time.
+     */
+    private void selectNextParts() {
+        long reference = now != YandexWeatherSnapshot.ABSENT_TIME ? now : snapshot.observationTime;
+        if (reference == YandexWeatherSnapshot.ABSENT_TIME) {
+            return;
+        }
+        candidateParts.sort(Comparator.comparingLong(TimedPart::start));
+        for (TimedPart candidate : candidateParts) {
+            if (parts.size() == FORECAST_PARTS) {
+                break;
+            }
+            if (candidate.start() > reference) {
+                parts.add(candidate.part());
+            }
+        }
     }
 
-    public String getNextPrecMM() {
-        return forecastNextPrecMM;
+    private void readDayValue(JsonReader reader, String name) throws IOException {
+        switch (name) {
+            case "date":
+                date = nextString(reader);
+                break;
+            case "week":
+                snapshot.weekNo = nextInt(reader);
+                break;
+            case "sunrise":
+                sunrise = nextString(reader);
+                break;
+            case "sunset":
+                sunset = nextString(reader);
+                break;
+            case "rise_begin":
+                riseBegin = nextString(reader);
+                break;
+            case "set_end":
+                setEnd = nextString(reader);
+                break;
+            case "moon_code":
+                snapshot.moonCode = nextInt(reader);
+                break;
+            case "biomet":
+                if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                    reader.skipValue();
+                    break;
+                }
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if ("index".equals(reader.nextName())) {
+                        snapshot.magneticFieldIndex = nextInt(reader);
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+                break;
+            default:
+                reader.skipValue();
+        }
     }
 
-    public String getFuturePrecMM() {
-        return forecastFuturePrecMM;
+    private static @Nullable String nextString(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case STRING:
+            case NUMBER:
+                return reader.nextString();
+            case BOOLEAN:
+                return Boolean.toString(reader.nextBoolean());
+            case NULL:
+                reader.nextNull();
+                return null;
+            default:
+                reader.skipValue();
+                return null;
+        }
     }
 
-    public String getNextPrecProb() {
-        return forecastNextPrecProb;
+    /**
+     * @return the rounded number, or {@link YandexWeatherSnapshot#ABSENT_INT} if the value is not a number or out of
+     *         range
+     */
+    private static int nextInt(JsonReader reader) throws IOException {
+        double value = nextDouble(reader);
+        if (Double.isNaN(value)) {
+            return YandexWeatherSnapshot.ABSENT_INT;
+        }
+        long rounded = Math.round(value);
+        return rounded > Integer.MIN_VALUE && rounded <= Integer.MAX_VALUE ? (int) rounded
+                : YandexWeatherSnapshot.ABSENT_INT;
+    }
+
+    /**
+     * @return the number, or {@link Double#NaN} if the value is not a finite number
+     */
+    private static double nextDouble(JsonReader reader) throws IOException {
+        double value;
+        switch (reader.peek()) {
+            case NUMBER:
+                value = reader.nextDouble();
+                break;
+            case STRING:
+                String text = reader.nextString();
+                try {
+                    value = Double.parseDouble(text);
+                } catch (NumberFormatException e) {
+                    LOGGER.debug("Ignoring non-numeric value '{}'", text);
+                    return Double.NaN;
+                }
+                break;
+            default:
+                reader.skipValue();
+                return Double.NaN;
+        }
+        return Double.isFinite(value) ? value : Double.NaN;
     }
 
-    public String getFuturePrecProb() {
-        return forecastFuturePrecProb;
+    private static boolean nextBoolean(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.BOOLEAN) {
+            return reader.nextBoolean();
+        }
+        reader.skipValue();
+        return false;
     }
 
-    public String getNextPrecPeriod() {
-        return forecastNextPrecPeriod;
+    private static @Nullable YandexWeatherCondition nextCondition(JsonReader reader) throws IOException {
+        String code = nextString(reader);
+        if (code == null) {
+            return null;
+        }
+        YandexWeatherCondition condition = YandexWeatherCondition.fromCode(code);
+        if (condition == null) {
+            LOGGER.debug("Unknown condition '{}'", code);
+        }
+        return condition;
     }
 
-    public String getFuturePrecPeriod() {
-        return forecastFuturePrecPeriod;
+    private static @Nullable YandexWeatherWindDirection nextWindDirection(JsonReader reader) throws IOException {
+        String code = nextString(reader);
+        return code == null ? null : YandexWeatherWindDirection.fromCode(code);
     }
 
-    public String getFactTempWater() {
-
-        return factTempWater;
+    private static @Nullable YandexWeatherDaytime nextDaytime(JsonReader reader) throws IOException {
+        String code = nextString(reader);
+        return code == null ? null : YandexWeatherDaytime.fromCode(code);
     }
 
-    public String getForecastNextTempWater() {
-
-        return forecastTempWater;
+    private static long toEpoch(@Nullable String dateTime) {
+        if (dateTime != null) {
+            try {
+                return Instant.parse(dateTime).toEpochMilli();
+            } catch (DateTimeException e) {
+                LOGGER.debug("Can't parse time '{}'", dateTime);
+            }
+        }
+        return YandexWeatherSnapshot.ABSENT_TIME;
+    }
+
+    /**
+     * Combines the local forecast date and a local {@code HH:mm} time using the location's time zone from
+     * {@code info.tzinfo}, or the system time zone if the response has none.
+     */
+    private long toEpoch(@Nullable String date, @Nullable String time) {
+        if (date != null && time != null) {
+            try {
+                ZoneId zone = this.zone;
+                return LocalDate.parse(date).atTime(LocalTime.parse(time))
+                        .atZone(zone != null ? zone : ZoneId.systemDefault()).toInstant().toEpochMilli();
+            } catch (DateTimeException e) {
+                LOGGER.debug("Can't parse time '{} {}'", date, time);
+            }
+        }
+        return YandexWeatherSnapshot.ABSENT_TIME;
     }
 
-    public String getForecastFutureTempWater() {
-
-        return futureTempWater;
+    private record TimedPart(long start, YandexWeatherForecastPart part) {
     }
 }
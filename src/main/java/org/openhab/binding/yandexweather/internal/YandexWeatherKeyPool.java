@@ -0,0 +1,293 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.yandexweather.internal;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link YandexWeatherKeyPool} spreads the requests of a bridge over several API keys. Every key has its own
+ * daily quota, counted by a {@link YandexWeatherQuotaBudget}, and a token bucket that refills at the key's daily rate,
+ * so a burst of due locations can't drain a key at once. Each tile is assigned to the key with the fewest tiles and
+ * the assignment is rebalanced when tiles leave. A request uses the tile's key first and fails over to the other keys
+ * when that one is out of tokens, out of quota or rejected by the API.
+ *
+ * @author Petr Shatsillo - Initial contribution
+ */
+@NonNullByDefault
+public class YandexWeatherKeyPool {
+    /** Share of the daily quota a key may spend in one burst */
+    private static final int BURST_DIVISOR = 4;
+    /** Bytes of the SHA-256 digest of a key used in the name of its quota file */
+    private static final int FINGERPRINT_BYTES = 8;
+
+    private final List<ApiKey> keys = new ArrayList<>();
+    private final Map<String, ApiKey> assignments = new HashMap<>();
+
+    /**
+     * @param quotaDirectory directory of the quota counters, one file per key named after the prefix and the start
+     *            of the SHA-256 digest of the key, so the key itself is not written to disk
+     */
+    public YandexWeatherKeyPool(List<String> apiKeys, Path quotaDirectory, String filePrefix, int requestsPerDay) {
+        long now = System.currentTimeMillis();
+        for (String key : apiKeys) {
+            Path file = quotaDirectory.resolve(filePrefix + "_" + fingerprint(key) + ".properties");
+            keys.add(new ApiKey(key, new YandexWeatherQuotaBudget(file, requestsPerDay), requestsPerDay, now));
+        }
+    }
+
+    /**
+     * Splits the {@code api} parameter of a bridge into its keys.
+     */
+    public static List<String> parseKeys(String api) {
+        List<String> keys = new ArrayList<>();
+        for (String key : api.split(",")) {
+            key = key.trim();
+            if (!key.isEmpty() && !keys.contains(key)) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    private static String fingerprint(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, FINGERPRINT_BYTES);
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform has to provide SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    /**
+     * Assigns a new tile to the key with the fewest tiles.
+     */
+    public synchronized void assign(String tile) {
+        if (keys.isEmpty() || assignments.containsKey(tile)) {
+            return;
+        }
+        ApiKey key = leastLoaded();
+        key.tiles++;
+        assignments.put(tile, key);
+    }
+
+    /**
+     * Removes a tile and moves one tile of the busiest key to the idlest one if they drifted apart.
+     */
+    public synchronized void release(String tile) {
+        ApiKey key = assignments.remove(tile);
+        if (key == null) {
+            return;
+        }
+        key.tiles--;
+        ApiKey busiest = key;
+        for (ApiKey candidate : keys) {
+            if (candidate.tiles > busiest.tiles) {
+                busiest = candidate;
+            }
+        }
+        ApiKey idlest = leastLoaded();
+        if (busiest.tiles - idlest.tiles > 1) {
+            for (Map.Entry<String, ApiKey> assignment : assignments.entrySet()) {
+                if (assignment.getValue() == busiest) {
+                    assignment.setValue(idlest);
+                    busiest.tiles--;
+                    idlest.tiles++;
+                    break;
+                }
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        assignments.clear();
+        keys.forEach(key -> key.tiles = 0);
+    }
+
+    /**
+     * Takes a token and one request of the daily quota from the key of the tile, or from another key if it has none
+     * left.
+     *
+     * @return the key to send the request with, or null if no key may send a request now
+     */
+    public synchronized @Nullable String acquire(String tile, long now) {
+        ApiKey preferred = assignments.get(tile);
+        if (preferred != null && preferred.tryAcquire(now)) {
+            return preferred.key;
+        }
+        for (ApiKey key : keys) {
+            if (key != preferred && key.tryAcquire(now)) {
+                return key.key;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the earliest time in ms when a key may send a request again, or {@link Long#MAX_VALUE} if all keys
+     *         were rejected
+     */
+    public synchronized long nextAvailable(long now) {
+        long next = Long.MAX_VALUE;
+        for (ApiKey key : keys) {
+            if (!key.disabled) {
+                next = Math.min(next, key.nextAvailable(now));
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Marks the daily quota of a key as used up, when the API refused a request because of its own counter.
+     */
+    public synchronized void exhaust(String apiKey, long now) {
+        ApiKey key = find(apiKey);
+        if (key != null) {
+            key.exhaustedUntil = key.budget.exhaust(now);
+        }
+    }
+
+    /**
+     * Stops using a key the API rejected, until the bridge is reconfigured.
+     */
+    public synchronized void disable(String apiKey) {
+        ApiKey key = find(apiKey);
+        if (key != null) {
+            key.disabled = true;
+        }
+    }
+
+    /**
+     * @return true if at least one key was not rejected by the API
+     */
+    public synchronized boolean hasEnabledKeys() {
+        return keys.stream().anyMatch(key -> !key.disabled);
+    }
+
+    /**
+     * @return the number of requests left for today on all keys
+     */
+    public synchronized int remaining(long now) {
+        int remaining = 0;
+        for (ApiKey key : keys) {
+            if (!key.disabled) {
+                remaining += key.budget.remaining(now);
+            }
+        }
+        return remaining;
+    }
+
+    /**
+     * @return the number of requests spent today on all keys
+     */
+    public synchronized int used(long now) {
+        int used = 0;
+        for (ApiKey key : keys) {
+            used += key.budget.used(now);
+        }
+        return used;
+    }
+
+    /**
+     * Writes the quota counters of all keys.
+     */
+    public synchronized void flush() {
+        keys.forEach(key -> key.budget.flush());
+    }
+
+    private ApiKey leastLoaded() {
+        ApiKey idlest = keys.get(0);
+        for (ApiKey key : keys) {
+            if (key.tiles < idlest.tiles) {
+                idlest = key;
+            }
+        }
+        return idlest;
+    }
+
+    private @Nullable ApiKey find(String apiKey) {
+        for (ApiKey key : keys) {
+            if (key.key.equals(apiKey)) {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    private static final class ApiKey {
+        private final String key;
+        private final YandexWeatherQuotaBudget budget;
+        private final double capacity;
+        private final double refillPerMilli;
+        private double tokens;
+        private long refilledAt;
+        private long exhaustedUntil;
+        private boolean disabled;
+        private int tiles;
+
+        ApiKey(String key, YandexWeatherQuotaBudget budget, int requestsPerDay, long now) {
+            this.key = key;
+            this.budget = budget;
+            this.capacity = Math.max(1, requestsPerDay / BURST_DIVISOR);
+            this.refillPerMilli = (double) Math.max(1, requestsPerDay) / YandexWeatherRefreshScheduler.DAY_MILLIS;
+            this.tokens = capacity;
+            this.refilledAt = now;
+        }
+
+        boolean tryAcquire(long now) {
+            if (disabled || now < exhaustedUntil) {
+                return false;
+            }
+            refill(now);
+            if (tokens < 1) {
+                return false;
+            }
+            if (!budget.tryAcquire(now)) {
+                exhaustedUntil = budget.exhaust(now);
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+
+        long nextAvailable(long now) {
+            if (now < exhaustedUntil) {
+                return exhaustedUntil;
+            }
+            refill(now);
+            return tokens >= 1 ? now : now + (long) Math.ceil((1 - tokens) / refillPerMilli);
+        }
+
+        private void refill(long now) {
+            if (now > refilledAt) {
+                tokens = Math.min(capacity, tokens + (now - refilledAt) * refillPerMilli);
+                refilledAt = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,227 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.yandexweather.internal;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link YandexWeatherMetrics} counts what a bridge spends on requests: fetch latency per tile, bytes received,
+ * decode time, channel updates and errors by class. Recording a sample only increments {@link LongAdder}s of fixed
+ * histograms created when a tile is added, so it doesn't allocate and can stay on all the time. Percentiles are read
+ * from the histograms when the values are published.
+ *
+ * @author Petr Shatsillo - Initial contribution
+ */
+@NonNullByDefault
+public class YandexWeatherMetrics {
+    public enum ErrorClass {
+        /** The API key was rejected */
+        AUTH,
+        /** The daily request limit is reached */
+        QUOTA,
+        /** Too many requests in a short time */
+        RATE_LIMIT,
+        /** 5xx responses */
+        SERVER,
+        /** Other 4xx responses, concerning a single location */
+        CLIENT,
+        /** Connection, TLS and timeout failures */
+        TRANSPORT,
+        /** Responses that can't be decoded */
+        DECODE
+    }
+
+    private final Map<String, LatencyHistogram> tileLatencies = new ConcurrentHashMap<>();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder bytesReceived = new LongAdder();
+    private final LongAdder decodes = new LongAdder();
+    private final LongAdder decodeNanos = new LongAdder();
+    private final LongAdder channelsUpdated = new LongAdder();
+    private final LongAdder[] errors = new LongAdder[ErrorClass.values().length];
+
+    public YandexWeatherMetrics() {
+        for (int i = 0; i < errors.length; i++) {
+            errors[i] = new LongAdder();
+        }
+    }
+
+    public void addTile(String key) {
+        tileLatencies.computeIfAbsent(key, k -> new LatencyHistogram());
+    }
+
+    public void removeTile(String key) {
+        tileLatencies.remove(key);
+    }
+
+    public void recordFetch(String key, long nanos) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        latency.record(millis);
+        LatencyHistogram histogram = tileLatencies.get(key);
+        if (histogram != null) {
+            histogram.record(millis);
+        }
+    }
+
+    public void recordDecode(long nanos) {
+        decodes.increment();
+        decodeNanos.add(nanos);
+    }
+
+    public void recordChannelsUpdated(int count) {
+        channelsUpdated.add(count);
+    }
+
+    public void recordError(ErrorClass errorClass) {
+        errors[errorClass.ordinal()].increment();
+    }
+
+    /**
+     * @param bytes bytes of a response body as counted by {@link YandexWeatherApiClient#bytesReceived}, ignored if
+     *            negative
+     */
+    public void recordBytesReceived(long bytes) {
+        if (bytes > 0) {
+            bytesReceived.add(bytes);
+        }
+    }
+
+    /**
+     * @return the upper bound in ms of the bucket holding the given percentile of all fetches, or -1 if there were
+     *         none
+     */
+    public long getFetchLatency(double percentile) {
+        return latency.percentile(percentile);
+    }
+
+    /**
+     * @return the upper bound in ms of the bucket holding the given percentile of the fetches of a tile, or -1 if
+     *         there were none
+     */
+    public long getFetchLatency(String key, double percentile) {
+        LatencyHistogram histogram = tileLatencies.get(key);
+        return histogram != null ? histogram.percentile(percentile) : -1;
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived.sum();
+    }
+
+    /**
+     * @return the average decode time in ms
+     */
+    public double getDecodeTime() {
+        long count = decodes.sum();
+        return count > 0 ? decodeNanos.sum() / 1e6 / count : 0;
+    }
+
+    public long getChannelsUpdated() {
+        return channelsUpdated.sum();
+    }
+
+    public long getErrors(ErrorClass errorClass) {
+        return errors[errorClass.ordinal()].sum();
+    }
+
+    public long getErrors() {
+        long sum = 0;
+        for (LongAdder error : errors) {
+            sum += error.sum();
+        }
+        return sum;
+    }
+
+    /**
+     * @return the non-zero error counts, e.g. {@code TRANSPORT=3 SERVER=1}
+     */
+    public String getErrorsByClass() {
+        StringBuilder text = new StringBuilder();
+        for (ErrorClass errorClass : ErrorClass.values()) {
+            long count = getErrors(errorClass);
+            if (count > 0) {
+                if (text.length() > 0) {
+                    text.append(' ');
+                }
+                text.append(errorClass).append('=').append(count);
+            }
+        }
+        return text.toString();
+    }
+
+    public void clear() {
+        tileLatencies.clear();
+        latency.clear();
+        bytesReceived.reset();
+        decodes.reset();
+        decodeNanos.reset();
+        channelsUpdated.reset();
+        for (LongAdder error : errors) {
+            error.reset();
+        }
+    }
+
+    /**
+     * Counts latencies in fixed buckets. The last bucket takes everything above the highest bound, which is far
+     * beyond the request timeout, and reports as that bound.
+     */
+    private static final class LatencyHistogram {
+        private static final long[] BOUNDS = { 50, 100, 250, 500, 750, 1000, 1500, 2500, 5000 };
+
+        private final LongAdder[] buckets = new LongAdder[BOUNDS.length + 1];
+
+        LatencyHistogram() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long millis) {
+            int i = 0;
+            while (i < BOUNDS.length && millis > BOUNDS[i]) {
+                i++;
+            }
+            buckets[i].increment();
+        }
+
+        long percentile(double percentile) {
+            long[] counts = new long[buckets.length];
+            long total = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                counts[i] = buckets[i].sum();
+                total += counts[i];
+            }
+            if (total == 0) {
+                return -1;
+            }
+            long rank = (long) Math.ceil(total * percentile / 100);
+            long seen = 0;
+            for (int i = 0; i < BOUNDS.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return BOUNDS[i];
+                }
+            }
+            return BOUNDS[BOUNDS.length - 1];
+        }
+
+        void clear() {
+            for (LongAdder bucket : buckets) {
+                bucket.reset();
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.yandexweather.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link YandexWeatherQuotaBudget} counts the requests spent today on an API key and refuses new ones once the
+ * daily quota is used up. The counter is kept in a properties file, so a restart doesn't grant a fresh quota. The file
+ * is written at most once a minute while requests are taken and on {@link #flush()}, so a crash loses at most the
+ * requests of the last minute.
+ *
+ * @author Petr Shatsillo - Initial contribution
+ */
+@NonNullByDefault
+public class YandexWeatherQuotaBudget {
+    private static final long FLUSH_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+
+    private final Logger logger = LoggerFactory.getLogger(YandexWeatherQuotaBudget.class);
+    private final Path file;
+    private final int requestsPerDay;
+    private LocalDate day;
+    private int used;
+    private boolean dirty;
+    private long storedAt;
+
+    public YandexWeatherQuotaBudget(Path file, int requestsPerDay) {
+        this.file = file;
+        this.requestsPerDay = Math.max(1, requestsPerDay);
+        this.day = today(System.currentTimeMillis());
+        load();
+    }
+
+    /**
+     * Takes one request from today's quota.
+     *
+     * @return false if the quota is used up
+     */
+    public synchronized boolean tryAcquire(long now) {
+        rollOver(now);
+        if (used >= requestsPerDay) {
+            return false;
+        }
+        used++;
+        dirty = true;
+        if (now - storedAt >= FLUSH_INTERVAL) {
+            store(now);
+        }
+        return true;
+    }
+
+    /**
+     * Writes the counter if requests were taken since it was last written.
+     */
+    public synchronized void flush() {
+        if (dirty) {
+            store(System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * @return the number of requests left for today
+     */
+    public synchronized int remaining(long now) {
+        rollOver(now);
+        return Math.max(0, requestsPerDay - used);
+    }
+
+    /**
+     * @return the number of requests spent today
+     */
+    public synchronized int used(long now) {
+        rollOver(now);
+        return used;
+    }
+
+    /**
+     * Marks today's quota as used up, when the API refused a request because of its own counter.
+     *
+     * @return the time in ms when the quota is granted again
+     */
+    public synchronized long exhaust(long now) {
+        rollOver(now);
+        used = requestsPerDay;
+        store(now);
+        return day.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private void rollOver(long now) {
+        LocalDate today = today(now);
+        if (!today.equals(day)) {
+            day = today;
+            used = 0;
+            store(now);
+        }
+    }
+
+    private static LocalDate today(long now) {
+        return Instant.ofEpochMilli(now).atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    private void load() {
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            Properties properties = new Properties();
+            properties.load(in);
+            if (day.equals(LocalDate.parse(properties.getProperty("day", "")))) {
+                used = Integer.parseInt(properties.getProperty("used", "0"));
+            }
+        } catch (IOException | DateTimeParseException | NumberFormatException e) {
+            logger.debug("Can't read quota counter {}: {}", file, e.getMessage());
+        }
+    }
+
+    private void store(long now) {
+        dirty = false;
+        storedAt = now;
+        Properties properties = new Properties();
+        properties.setProperty("day", day.toString());
+        properties.setProperty("used", Integer.toString(used));
+        try {
+            YandexWeatherFiles.writeAtomically(file, out -> properties.store(out, null));
+        } catch (IOException e) {
+            logger.debug("Can't store quota counter {}: {}", file, e.getMessage());
+        }
+    }
+}
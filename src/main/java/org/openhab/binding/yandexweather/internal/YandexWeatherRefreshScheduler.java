@@ -0,0 +1,249 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.yandexweather.internal;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherCondition;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherFact;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherForecastPart;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherSnapshot;
+
+/**
+ * The {@link YandexWeatherRefreshScheduler} keeps the next due time of every registered location in a min-heap.
+ * The daily quota is split between the locations by weight: a location with weight {@code w} is requested every
+ * {@code 86400000 / requestsPerDay * totalWeight / w} ms, so the sum over all locations stays at the quota no matter
+ * how many locations share it. All locations start with weight 1. The day is divided into slots of
+ * {@code 86400000 / requestsPerDay} ms and a location takes the first free slot at least one period ahead, so locations
+ * registered together are spread apart instead of being requested in lockstep.
+ *
+ * @author Petr Shatsillo - Initial contribution
+ */
+@NonNullByDefault
+public class YandexWeatherRefreshScheduler {
+    public static final long DAY_MILLIS = 86400000L;
+    public static final long NO_DEADLINE = Long.MAX_VALUE;
+    public static final double DEFAULT_WEIGHT = 1.0;
+    public static final double STABLE_WEIGHT = 0.5;
+    public static final double VOLATILE_WEIGHT = 2.0;
+    private static final int PRESSURE_DROP_MM = 1;
+    private static final int PRECIPITATION_RISE = 20;
+
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>(Comparator.comparingLong(Entry::getDue));
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Set<Long> occupiedSlots = new HashSet<>();
+    private long slotMillis = DAY_MILLIS;
+    private double totalWeight = 0;
+
+    /**
+     * Sets the number of requests the bridge may spend per day.
+     */
+    public synchronized void setRequestsPerDay(int requestsPerDay) {
+        slotMillis = DAY_MILLIS / Math.max(1, requestsPerDay);
+        // slot numbers of the old length are meaningless now, locations take new slots on their next request
+        occupiedSlots.clear();
+        entries.values().forEach(entry -> entry.slot = Entry.NO_SLOT);
+    }
+
+    /**
+     * Adds a location, it is due immediately and joins the rotation after its first request.
+     *
+     * @return false if the location is already scheduled
+     */
+    public synchronized boolean add(String key, long now) {
+        if (entries.containsKey(key)) {
+            return false;
+        }
+        Entry entry = new Entry(key, now);
+        entries.put(key, entry);
+        queue.add(entry);
+        totalWeight += entry.weight;
+        return true;
+    }
+
+    /**
+     * Changes the share of the quota given to a location. The new weight applies from its next request on.
+     */
+    public synchronized void setWeight(String key, double weight) {
+        Entry entry = entries.get(key);
+        if (entry != null && weight > 0) {
+            totalWeight += weight - entry.weight;
+            entry.weight = weight;
+        }
+    }
+
+    /**
+     * Moves the next request of a location to the given time.
+     */
+    public synchronized void setDue(String key, long due) {
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            queue.remove(entry);
+            releaseSlot(entry);
+            entry.due = due;
+            queue.add(entry);
+        }
+    }
+
+    /**
+     * @return the current interval between two requests of a location in ms, or {@link #NO_DEADLINE} if it is unknown
+     */
+    public synchronized long period(String key) {
+        Entry entry = entries.get(key);
+        return entry != null ? periodOf(entry) : NO_DEADLINE;
+    }
+
+    public synchronized boolean remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        queue.remove(entry);
+        releaseSlot(entry);
+        totalWeight -= entry.weight;
+        return true;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        queue.clear();
+        occupiedSlots.clear();
+        totalWeight = 0;
+    }
+
+    /**
+     * Removes all locations due at {@code now} from the head of the heap and moves each of them to the first free slot
+     * at least one period ahead.
+     *
+     * @return keys of the due locations, earliest first
+     */
+    public synchronized List<String> pollDue(long now) {
+        List<String> due = new ArrayList<>();
+        Entry head = queue.peek();
+        while (head != null && head.due <= now) {
+            queue.poll();
+            releaseSlot(head);
+            takeSlot(head, now + periodOf(head));
+            due.add(head.key);
+            head = queue.peek();
+        }
+        for (String key : due) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                queue.add(entry);
+            }
+        }
+        return due;
+    }
+
+    /**
+     * @return time of the earliest deadline in ms, or {@link #NO_DEADLINE} if nothing is scheduled
+     */
+    public synchronized long nextDeadline() {
+        Entry head = queue.peek();
+        return head != null ? head.due : NO_DEADLINE;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Rates a location by comparing its last two snapshots. Falling pressure or a rising chance of precipitation
+     * means the weather is about to change, so the location should be requested more often. A location where nothing
+     * changed can wait longer; a value missing from either snapshot doesn't count as unchanged.
+     *
+     * @return the weight of the location for {@link #setWeight(String, double)}
+     */
+    public static double weightOf(@Nullable YandexWeatherSnapshot previous, YandexWeatherSnapshot current) {
+        if (previous == null) {
+            return DEFAULT_WEIGHT;
+        }
+        YandexWeatherFact before = previous.getFact();
+        YandexWeatherFact after = current.getFact();
+        YandexWeatherForecastPart nextBefore = previous.getPart(0);
+        YandexWeatherForecastPart nextAfter = current.getPart(0);
+        if (isPresent(before.getPressureMm(), after.getPressureMm())
+                && before.getPressureMm() - after.getPressureMm() >= PRESSURE_DROP_MM) {
+            return VOLATILE_WEIGHT;
+        }
+        if (isPresent(nextBefore.getPrecProb(), nextAfter.getPrecProb())
+                && nextAfter.getPrecProb() - nextBefore.getPrecProb() >= PRECIPITATION_RISE) {
+            return VOLATILE_WEIGHT;
+        }
+        YandexWeatherCondition condition = after.getCondition();
+        if (isUnchanged(before.getPressureMm(), after.getPressureMm())
+                && isUnchanged(before.getTemperature(), after.getTemperature()) && condition != null
+                && condition == before.getCondition()
+                && isUnchanged(nextBefore.getPrecProb(), nextAfter.getPrecProb())) {
+            return STABLE_WEIGHT;
+        }
+        return DEFAULT_WEIGHT;
+    }
+
+    private static boolean isPresent(int before, int after) {
+        return before != YandexWeatherSnapshot.ABSENT_INT && after != YandexWeatherSnapshot.ABSENT_INT;
+    }
+
+    private static boolean isUnchanged(int before, int after) {
+        return isPresent(before, after) && before == after;
+    }
+
+    private void takeSlot(Entry entry, long earliest) {
+        long slot = (earliest + slotMillis - 1) / slotMillis;
+        while (!occupiedSlots.add(slot)) {
+            slot++;
+        }
+        entry.slot = slot;
+        entry.due = slot * slotMillis;
+    }
+
+    private void releaseSlot(Entry entry) {
+        if (entry.slot != Entry.NO_SLOT) {
+            occupiedSlots.remove(entry.slot);
+            entry.slot = Entry.NO_SLOT;
+        }
+    }
+
+    private long periodOf(Entry entry) {
+        return Math.max(slotMillis, Math.round(slotMillis * totalWeight / entry.weight));
+    }
+
+    private static class Entry {
+        private static final long NO_SLOT = -1;
+
+        private final String key;
+        private long due;
+        /** Number of the slot the location is due in, or {@link #NO_SLOT} if its due time was set directly */
+        private long slot = NO_SLOT;
+        private double weight = DEFAULT_WEIGHT;
+
+        Entry(String key, long due) {
+            this.key = key;
+            this.due = due;
+        }
+
+        long getDue() {
+            return due;
+        }
+    }
+}
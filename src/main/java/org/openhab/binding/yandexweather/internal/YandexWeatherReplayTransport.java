@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.yandexweather.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.net.ssl.SSLSession;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link YandexWeatherReplayTransport} answers weather requests from recorded responses on disk instead of the
+ * API, so the bridge and thing handlers can be exercised with many locations, without network access and without
+ * spending quota. For a request to {@code <endpoint>?lat=<lat>&lon=<lon>} it serves
+ * {@code <endpoint>_<lat>_<lon>.json} if it exists, otherwise {@code <endpoint>.json}. Every response can be delayed,
+ * and a share of the requests fails with a server error or a broken connection.
+ *
+ * @author Petr Shatsillo - Initial contribution
+ */
+@NonNullByDefault
+public class YandexWeatherReplayTransport implements YandexWeatherApiClient.Transport {
+    /** Base URL of the clients using this transport, it is never connected to */
+    public static final String BASE_URL = "http://localhost/replay/v2";
+
+    private static final HttpHeaders JSON_HEADERS = HttpHeaders.of(
+            Map.of("Content-Type", List.of("application/json; charset=utf-8")), (name, value) -> true);
+    private static final HttpHeaders NO_HEADERS = HttpHeaders.of(Map.of(), (name, value) -> true);
+
+    private final Path directory;
+    private final long latency;
+    private final int errorRate;
+
+    /**
+     * @param latency delay of every response in ms
+     * @param errorRate share of failed requests in percent
+     */
+    public YandexWeatherReplayTransport(Path directory, long latency, int errorRate) {
+        this.directory = directory;
+        this.latency = Math.max(0, latency);
+        this.errorRate = Math.max(0, Math.min(100, errorRate));
+    }
+
+    @Override
+    public HttpResponse<InputStream> send(HttpRequest request) throws IOException, InterruptedException {
+        if (latency > 0) {
+            Thread.sleep(latency);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextInt(100) < errorRate) {
+            if (random.nextBoolean()) {
+                throw new IOException("Replayed connection failure");
+            }
+            return new ReplayResponse(HttpURLConnection.HTTP_UNAVAILABLE, request, NO_HEADERS,
+                    InputStream.nullInputStream());
+        }
+        Path fixture = fixtureOf(request.uri());
+        if (fixture == null) {
+            return new ReplayResponse(HttpURLConnection.HTTP_NOT_FOUND, request, NO_HEADERS,
+                    InputStream.nullInputStream());
+        }
+        // counted like a body received over the network
+        return new ReplayResponse(HttpURLConnection.HTTP_OK, request, JSON_HEADERS,
+                new YandexWeatherApiClient.DrainingInputStream(Files.newInputStream(fixture)));
+    }
+
+    private @Nullable Path fixtureOf(URI uri) {
+        String path = uri.getPath();
+        String endpoint = path.substring(path.lastIndexOf('/') + 1);
+        String lat = null;
+        String lon = null;
+        String query = uri.getQuery();
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                if (parameter.startsWith("lat=")) {
+                    lat = parameter.substring(4);
+                } else if (parameter.startsWith("lon=")) {
+                    lon = parameter.substring(4);
+                }
+            }
+        }
+        if (lat != null && lon != null) {
+            Path fixture = directory.resolve(endpoint + "_" + lat + "_" + lon + ".json");
+            if (Files.isRegularFile(fixture)) {
+                return fixture;
+            }
+        }
+        Path fixture = directory.resolve(endpoint + ".json");
+        return Files.isRegularFile(fixture) ? fixture : null;
+    }
+
+    private record ReplayResponse(int statusCode, HttpRequest request, HttpHeaders headers,
+            InputStream body) implements HttpResponse<InputStream> {
+
+        @Override
+        public Optional<HttpResponse<InputStream>> previousResponse() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return Optional.empty();
+        }
+
+        @Override
+        public URI uri() {
+            return request.uri();
+        }
+
+        @Override
+        public HttpClient.Version version() {
+            return HttpClient.Version.HTTP_1_1;
+        }
+    }
+}
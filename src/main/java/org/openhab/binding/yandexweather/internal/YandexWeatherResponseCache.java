@@ -0,0 +1,198 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.yandexweather.internal;
+
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherSnapshot;
+
+/**
+ * The {@link YandexWeatherResponseCache} keeps the decoded response of every tile together with the caching headers
+ * the API sent with it. A fresh entry, as given by {@code Cache-Control: max-age} or {@code Expires}, is served
+ * without a request. A stale entry is revalidated with {@code If-None-Match} / {@code If-Modified-Since}, so an
+ * unchanged response doesn't have to be downloaded and decoded again. The cache belongs to the
+ * {@link YandexWeatherService}, so bridges requesting the same data share their responses.
+ *
+ * @author Petr Shatsillo - Initial contribution
+ */
+@NonNullByDefault
+public class YandexWeatherResponseCache {
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong revalidations = new AtomicLong();
+
+    /**
+     * @return the cached snapshot of the tile if it is still fresh, otherwise null
+     */
+    public @Nullable YandexWeatherSnapshot getFresh(String key, long now) {
+        Entry entry = entries.get(key);
+        if (entry != null && now < entry.expiresAt) {
+            hits.incrementAndGet();
+            return entry.snapshot;
+        }
+        return null;
+    }
+
+    /**
+     * @return the cached snapshot of the tile if it was received less than {@code maxAge} ms ago, even if the API
+     *         didn't declare it fresh, otherwise null
+     */
+    public @Nullable YandexWeatherSnapshot getRecent(String key, long now, long maxAge) {
+        Entry entry = entries.get(key);
+        if (entry != null && now - entry.storedAt < maxAge) {
+            hits.incrementAndGet();
+            return entry.snapshot;
+        }
+        return null;
+    }
+
+    /**
+     * Adds the validators of the cached response of the tile, if there is one, to the request.
+     */
+    public void addValidators(String key, HttpRequest.Builder request) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return;
+        }
+        String etag = entry.etag;
+        String lastModified = entry.lastModified;
+        if (etag != null) {
+            request.header("If-None-Match", etag);
+        }
+        if (lastModified != null) {
+            request.header("If-Modified-Since", lastModified);
+        }
+    }
+
+    /**
+     * Handles a {@code 304 Not Modified} response: the cached entry becomes fresh again with the new headers.
+     *
+     * @return the cached snapshot, or null if the tile has no entry anymore
+     */
+    public @Nullable YandexWeatherSnapshot revalidated(String key, HttpHeaders headers, long now) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        revalidations.incrementAndGet();
+        entries.put(key, new Entry(entry.snapshot, headers.firstValue("ETag").orElse(entry.etag),
+                headers.firstValue("Last-Modified").orElse(entry.lastModified), expiresAt(headers, now), now));
+        return entry.snapshot;
+    }
+
+    /**
+     * Stores the snapshot decoded from a full response, unless the API forbids storing it.
+     */
+    public void store(String key, YandexWeatherSnapshot snapshot, HttpHeaders headers, long now) {
+        misses.incrementAndGet();
+        if (cacheControl(headers).contains("no-store")) {
+            entries.remove(key);
+            return;
+        }
+        entries.put(key, new Entry(snapshot, headers.firstValue("ETag").orElse(null),
+                headers.firstValue("Last-Modified").orElse(null), expiresAt(headers, now), now));
+    }
+
+    public void remove(String key) {
+        entries.remove(key);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getRevalidations() {
+        return revalidations.get();
+    }
+
+    /**
+     * @return the time in ms until which a response with the given headers is fresh
+     */
+    static long expiresAt(HttpHeaders headers, long now) {
+        String cacheControl = cacheControl(headers);
+        if (cacheControl.contains("no-cache") || cacheControl.contains("no-store")) {
+            return now;
+        }
+        for (String directive : cacheControl.split(",")) {
+            directive = directive.trim();
+            if (directive.startsWith("max-age=")) {
+                try {
+                    long maxAge = Long.parseLong(directive.substring("max-age=".length()).replace("\"", ""));
+                    long age = headers.firstValueAsLong("Age").orElse(0);
+                    return now + TimeUnit.SECONDS.toMillis(Math.max(0, maxAge - age));
+                } catch (NumberFormatException e) {
+                    return now;
+                }
+            }
+        }
+        Optional<String> expires = headers.firstValue("Expires");
+        if (expires.isPresent()) {
+            try {
+                long expiresAt = parseDate(expires.get());
+                Optional<String> date = headers.firstValue("Date");
+                // measure the lifetime against the server clock, not ours
+                long serverNow = date.isPresent() ? parseDate(date.get()) : now;
+                return now + Math.max(0, expiresAt - serverNow);
+            } catch (DateTimeParseException e) {
+                return now;
+            }
+        }
+        return now;
+    }
+
+    private static String cacheControl(HttpHeaders headers) {
+        return String.join(",", headers.allValues("Cache-Control")).toLowerCase(Locale.ROOT);
+    }
+
+    private static long parseDate(String value) {
+        return ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+    }
+
+    private static class Entry {
+        private final YandexWeatherSnapshot snapshot;
+        private final @Nullable String etag;
+        private final @Nullable String lastModified;
+        private final long expiresAt;
+        private final long storedAt;
+
+        Entry(YandexWeatherSnapshot snapshot, @Nullable String etag, @Nullable String lastModified, long expiresAt,
+                long storedAt) {
+            this.snapshot = snapshot;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.expiresAt = expiresAt;
+            this.storedAt = storedAt;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.yandexweather.internal;
+
+import static org.openhab.binding.yandexweather.internal.YandexWeatherBindingConstants.BINDING_ID;
+
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.core.OpenHAB;
+import org.openhab.core.common.ThreadPoolManager;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+
+/**
+ * The {@link YandexWeatherService} holds what all bridges of the binding share: one {@link HttpClient}, so the number
+ * of connections doesn't grow with the number of bridges, the icon cache and the response cache. Bridges subscribe
+ * to the responses they request; two bridges covering the same tile with the same endpoint settings share one cache
+ * entry, and a bridge reuses a response another bridge received recently instead of requesting it again. An entry is
+ * dropped when its last subscriber leaves.
+ *
+ * @author Petr Shatsillo - Initial contribution
+ */
+@NonNullByDefault
+@Component(service = YandexWeatherService.class)
+public class YandexWeatherService {
+    private final YandexWeatherApiClient.Transport transport;
+    private final YandexWeatherIconCache iconCache;
+    private final YandexWeatherResponseCache responseCache = new YandexWeatherResponseCache();
+    private final Map<String, Set<Object>> subscribers = new ConcurrentHashMap<>();
+
+    @Activate
+    public YandexWeatherService() {
+        transport = YandexWeatherApiClient.transport(YandexWeatherApiClient.newHttpClient());
+        iconCache = new YandexWeatherIconCache(transport, Path.of(OpenHAB.getUserDataFolder(), BINDING_ID, "icons"),
+                ThreadPoolManager.getPool(BINDING_ID));
+    }
+
+    @Deactivate
+    public void deactivate() {
+        subscribers.clear();
+        responseCache.clear();
+    }
+
+    /**
+     * @return a client for a bridge, sending through the shared {@link HttpClient}
+     */
+    public YandexWeatherApiClient newApiClient(String baseUrl, String endpoint, int forecastDays,
+            int forecastHours) {
+        return new YandexWeatherApiClient(transport, baseUrl, endpoint, forecastDays, forecastHours);
+    }
+
+    public YandexWeatherIconCache getIconCache() {
+        return iconCache;
+    }
+
+    public YandexWeatherResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    /**
+     * Records that the subscriber requests the response with the given cache key.
+     */
+    public void subscribe(String cacheKey, Object subscriber) {
+        subscribers.computeIfAbsent(cacheKey, key -> ConcurrentHashMap.newKeySet()).add(subscriber);
+    }
+
+    /**
+     * Removes the subscriber from the response, and the response from the cache if nobody else requests it.
+     */
+    public void unsubscribe(String cacheKey, Object subscriber) {
+        subscribers.computeIfPresent(cacheKey, (key, current) -> {
+            current.remove(subscriber);
+            if (!current.isEmpty()) {
+                return current;
+            }
+            responseCache.remove(key);
+            return null;
+        });
+    }
+
+    /**
+     * Removes the subscriber from all responses.
+     */
+    public void unsubscribeAll(Object subscriber) {
+        for (String cacheKey : subscribers.keySet()) {
+            unsubscribe(cacheKey, subscriber);
+        }
+    }
+}
@@ -0,0 +1,285 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.yandexweather.internal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherCondition;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherDaytime;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherFact;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherForecastPart;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherForecastSeries;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherPartName;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherSeason;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherSnapshot;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherWindDirection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link YandexWeatherSnapshotStore} keeps the last snapshot of every tile in a small binary file, so the channels
+ * can be filled right after a restart, before the first request completes. Enums are stored by their API code, so
+ * the files stay readable when constants are added.
+ *
+ * @author Petr Shatsillo - Initial contribution
+ */
+@NonNullByDefault
+public class YandexWeatherSnapshotStore {
+    private static final int MAGIC = 0x59575331;
+    private static final int VERSION = 2;
+
+    private final Logger logger = LoggerFactory.getLogger(YandexWeatherSnapshotStore.class);
+    private final Path directory;
+
+    public YandexWeatherSnapshotStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @return the stored snapshot of the tile, or null if there is none or it can't be read
+     */
+    public @Nullable StoredSnapshot load(String key) {
+        Path file = fileOf(key);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readUnsignedByte() != VERSION) {
+                logger.debug("Ignoring snapshot {} of an unknown format", file);
+                return null;
+            }
+            long fetchedAt = in.readLong();
+            return new StoredSnapshot(readSnapshot(in), fetchedAt);
+        } catch (IOException e) {
+            logger.debug("Can't read snapshot {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    public void store(String key, YandexWeatherSnapshot snapshot, long fetchedAt) {
+        Path file = fileOf(key);
+        try {
+            YandexWeatherFiles.writeAtomically(file, stream -> {
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+                out.writeInt(MAGIC);
+                out.writeByte(VERSION);
+                out.writeLong(fetchedAt);
+                writeSnapshot(out, snapshot);
+                out.flush();
+            });
+        } catch (IOException e) {
+            logger.debug("Can't store snapshot {}: {}", file, e.getMessage());
+        }
+    }
+
+    private Path fileOf(String key) {
+        return directory.resolve(key.replace(',', '_') + ".bin");
+    }
+
+    private static void writeSnapshot(DataOutputStream out, YandexWeatherSnapshot snapshot) throws IOException {
+        out.writeLong(snapshot.getObservationTime());
+        writeString(out, snapshot.getLocality());
+        writeFact(out, snapshot.getFact());
+        out.writeByte(snapshot.getParts().size());
+        for (YandexWeatherForecastPart part : snapshot.getParts()) {
+            writePart(out, part);
+        }
+        out.writeInt(snapshot.getWeekNo());
+        out.writeLong(snapshot.getSunrise());
+        out.writeLong(snapshot.getSunset());
+        out.writeLong(snapshot.getRiseBegin());
+        out.writeLong(snapshot.getSetEnd());
+        out.writeInt(snapshot.getMoonCode());
+        out.writeInt(snapshot.getMagneticFieldIndex());
+        writeSeries(out, snapshot.getDayParts());
+        writeSeries(out, snapshot.getHourly());
+    }
+
+    private static YandexWeatherSnapshot readSnapshot(DataInputStream in) throws IOException {
+        YandexWeatherSnapshot.Builder snapshot = new YandexWeatherSnapshot.Builder();
+        snapshot.observationTime = in.readLong();
+        snapshot.locality = readString(in);
+        snapshot.fact = readFact(in);
+        int count = in.readUnsignedByte();
+        List<YandexWeatherForecastPart> parts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            parts.add(readPart(in));
+        }
+        snapshot.parts = parts;
+        snapshot.weekNo = in.readInt();
+        snapshot.sunrise = in.readLong();
+        snapshot.sunset = in.readLong();
+        snapshot.riseBegin = in.readLong();
+        snapshot.setEnd = in.readLong();
+        snapshot.moonCode = in.readInt();
+        snapshot.magneticFieldIndex = in.readInt();
+        snapshot.dayParts = readSeries(in);
+        snapshot.hourly = readSeries(in);
+        return snapshot.build();
+    }
+
+    private static void writeSeries(DataOutputStream out, YandexWeatherForecastSeries series) throws IOException {
+        out.writeShort(series.size());
+        for (int i = 0; i < series.size(); i++) {
+            out.writeLong(series.getTime(i));
+            out.writeInt(series.getTemperature(i));
+            out.writeInt(series.getFeelsLike(i));
+            out.writeDouble(series.getWindSpeed(i));
+            out.writeDouble(series.getWindGust(i));
+            out.writeInt(series.getPressureMm(i));
+            out.writeInt(series.getHumidity(i));
+            out.writeDouble(series.getPrecMm(i));
+            out.writeInt(series.getPrecProb(i));
+        }
+    }
+
+    private static YandexWeatherForecastSeries readSeries(DataInputStream in) throws IOException {
+        int size = in.readUnsignedShort();
+        YandexWeatherForecastSeries.Builder series = new YandexWeatherForecastSeries.Builder(size);
+        for (int i = 0; i < size; i++) {
+            series.next(in.readLong());
+            series.setTemperature(in.readInt());
+            series.setFeelsLike(in.readInt());
+            series.setWindSpeed(in.readDouble());
+            series.setWindGust(in.readDouble());
+            series.setPressureMm(in.readInt());
+            series.setHumidity(in.readInt());
+            series.setPrecMm(in.readDouble());
+            series.setPrecProb(in.readInt());
+        }
+        return series.build();
+    }
+
+    private static void writeFact(DataOutputStream out, YandexWeatherFact fact) throws IOException {
+        out.writeInt(fact.getTemperature());
+        out.writeInt(fact.getFeelsLike());
+        out.writeInt(fact.getTempWater());
+        writeString(out, fact.getIcon());
+        YandexWeatherCondition condition = fact.getCondition();
+        writeString(out, condition != null ? condition.getCode() : null);
+        out.writeDouble(fact.getCloudness());
+        out.writeBoolean(fact.isThunder());
+        out.writeDouble(fact.getWindSpeed());
+        out.writeDouble(fact.getWindGust());
+        YandexWeatherWindDirection windDir = fact.getWindDir();
+        writeString(out, windDir != null ? windDir.getCode() : null);
+        out.writeInt(fact.getPressureMm());
+        out.writeInt(fact.getHumidity());
+        YandexWeatherDaytime daytime = fact.getDaytime();
+        writeString(out, daytime != null ? daytime.getCode() : null);
+        YandexWeatherSeason season = fact.getSeason();
+        writeString(out, season != null ? season.getCode() : null);
+        out.writeDouble(fact.getSoilMoisture());
+        out.writeInt(fact.getSoilTemp());
+        out.writeInt(fact.getUvIndex());
+    }
+
+    private static YandexWeatherFact readFact(DataInputStream in) throws IOException {
+        YandexWeatherFact.Builder fact = new YandexWeatherFact.Builder();
+        fact.temperature = in.readInt();
+        fact.feelsLike = in.readInt();
+        fact.tempWater = in.readInt();
+        fact.icon = readString(in);
+        fact.condition = readCode(in, YandexWeatherCondition::fromCode);
+        fact.cloudness = in.readDouble();
+        fact.thunder = in.readBoolean();
+        fact.windSpeed = in.readDouble();
+        fact.windGust = in.readDouble();
+        fact.windDir = readCode(in, YandexWeatherWindDirection::fromCode);
+        fact.pressureMm = in.readInt();
+        fact.humidity = in.readInt();
+        fact.daytime = readCode(in, YandexWeatherDaytime::fromCode);
+        fact.season = readCode(in, YandexWeatherSeason::fromCode);
+        fact.soilMoisture = in.readDouble();
+        fact.soilTemp = in.readInt();
+        fact.uvIndex = in.readInt();
+        return fact.build();
+    }
+
+    private static void writePart(DataOutputStream out, YandexWeatherForecastPart part) throws IOException {
+        YandexWeatherPartName partName = part.getPartName();
+        writeString(out, partName != null ? partName.getCode() : null);
+        out.writeInt(part.getTempMin());
+        out.writeInt(part.getTempAvg());
+        out.writeInt(part.getTempMax());
+        out.writeInt(part.getFeelsLike());
+        out.writeInt(part.getTempWater());
+        writeString(out, part.getIcon());
+        YandexWeatherCondition condition = part.getCondition();
+        writeString(out, condition != null ? condition.getCode() : null);
+        YandexWeatherDaytime daytime = part.getDaytime();
+        writeString(out, daytime != null ? daytime.getCode() : null);
+        out.writeDouble(part.getWindSpeed());
+        out.writeDouble(part.getWindGust());
+        YandexWeatherWindDirection windDir = part.getWindDir();
+        writeString(out, windDir != null ? windDir.getCode() : null);
+        out.writeInt(part.getPressureMm());
+        out.writeInt(part.getHumidity());
+        out.writeDouble(part.getPrecMm());
+        out.writeInt(part.getPrecPeriod());
+        out.writeInt(part.getPrecProb());
+    }
+
+    private static YandexWeatherForecastPart readPart(DataInputStream in) throws IOException {
+        YandexWeatherForecastPart.Builder part = new YandexWeatherForecastPart.Builder();
+        part.partName = readCode(in, YandexWeatherPartName::fromCode);
+        part.tempMin = in.readInt();
+        part.tempAvg = in.readInt();
+        part.tempMax = in.readInt();
+        part.feelsLike = in.readInt();
+        part.tempWater = in.readInt();
+        part.icon = readString(in);
+        part.condition = readCode(in, YandexWeatherCondition::fromCode);
+        part.daytime = readCode(in, YandexWeatherDaytime::fromCode);
+        part.windSpeed = in.readDouble();
+        part.windGust = in.readDouble();
+        part.windDir = readCode(in, YandexWeatherWindDirection::fromCode);
+        part.pressureMm = in.readInt();
+        part.humidity = in.readInt();
+        part.precMm = in.readDouble();
+        part.precPeriod = in.readInt();
+        part.precProb = in.readInt();
+        return part.build();
+    }
+
+    private static void writeString(DataOutputStream out, @Nullable String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static @Nullable String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static <T> @Nullable T readCode(DataInputStream in, Function<String, @Nullable T> fromCode)
+            throws IOException {
+        String code = readString(in);
+        return code != null ? fromCode.apply(code) : null;
+    }
+
+    public record StoredSnapshot(YandexWeatherSnapshot snapshot, long fetchedAt) {
+    }
+}
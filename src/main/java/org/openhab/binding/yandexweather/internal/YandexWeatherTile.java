@@ -0,0 +1,62 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.yandexweather.internal;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link YandexWeatherTile} is a location rounded to a fixed number of decimal places. Things whose coordinates
+ * fall into the same tile share one API request.
+ *
+ * @author Petr Shatsillo - Initial contribution
+ */
+@NonNullByDefault
+public record YandexWeatherTile(String lat, String lon) {
+
+    /**
+     * @param location coordinates as "latitude,longitude"
+     * @param precision number of decimal places kept
+     * @return the tile of the location, or null if the location is not a valid pair of coordinates
+     */
+    public static @Nullable YandexWeatherTile of(String location, int precision) {
+        String[] coordinates = location.split(",");
+        if (coordinates.length != 2) {
+            return null;
+        }
+        try {
+            BigDecimal lat = new BigDecimal(coordinates[0].trim());
+            BigDecimal lon = new BigDecimal(coordinates[1].trim());
+            if (lat.abs().compareTo(BigDecimal.valueOf(90)) > 0 || lon.abs().compareTo(BigDecimal.valueOf(180)) > 0) {
+                return null;
+            }
+            return new YandexWeatherTile(round(lat, precision), round(lon, precision));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String round(BigDecimal value, int precision) {
+        return value.setScale(Math.max(0, precision), RoundingMode.HALF_UP).stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * @return the key of the tile, used by the refresh scheduler
+     */
+    public String key() {
+        return lat + "," + lon;
+    }
+}
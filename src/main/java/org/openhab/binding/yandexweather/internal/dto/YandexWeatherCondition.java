@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.yandexweather.internal.dto;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link YandexWeatherCondition} lists weather conditions reported by the API.
+ *
+ * @author Petr Shatsillo - Initial contribution
+ */
+@NonNullByDefault
+public enum YandexWeatherCondition {
+    CLEAR("clear"),
+    PARTLY_CLOUDY("partly-cloudy"),
+    CLOUDY("cloudy"),
+    OVERCAST("overcast"),
+    DRIZZLE("drizzle"),
+    LIGHT_RAIN("light-rain"),
+    RAIN("rain"),
+    MODERATE_RAIN("moderate-rain"),
+    HEAVY_RAIN("heavy-rain"),
+    CONTINUOUS_HEAVY_RAIN("continuous-heavy-rain"),
+    SHOWERS("showers"),
+    WET_SNOW("wet-snow"),
+    LIGHT_SNOW("light-snow"),
+    SNOW("snow"),
+    SNOW_SHOWERS("snow-showers"),
+    HAIL("hail"),
+    THUNDERSTORM("thunderstorm"),
+    THUNDERSTORM_WITH_RAIN("thunderstorm-with-rain"),
+    THUNDERSTORM_WITH_HAIL("thunderstorm-with-hail"),
+    PARTLY_CLOUDY_AND_LIGHT_RAIN("partly-cloudy-and-light-rain"),
+    PARTLY_CLOUDY_AND_RAIN("partly-cloudy-and-rain"),
+    OVERCAST_AND_RAIN("overcast-and-rain"),
+    OVERCAST_THUNDERSTORMS_WITH_RAIN("overcast-thunderstorms-with-rain"),
+    CLOUDY_AND_LIGHT_RAIN("cloudy-and-light-rain"),
+    OVERCAST_AND_LIGHT_RAIN("overcast-and-light-rain"),
+    CLOUDY_AND_RAIN("cloudy-and-rain"),
+    OVERCAST_AND_WET_SNOW("overcast-and-wet-snow"),
+    PARTLY_CLOUDY_AND_LIGHT_SNOW("partly-cloudy-and-light-snow"),
+    PARTLY_CLOUDY_AND_SNOW("partly-cloudy-and-snow"),
+    OVERCAST_AND_SNOW("overcast-and-snow"),
+    CLOUDY_AND_LIGHT_SNOW("cloudy-and-light-snow"),
+    OVERCAST_AND_LIGHT_SNOW("overcast-and-light-snow"),
+    CLOUDY_AND_SNOW("cloudy-and-snow");
+
+    private static final Map<String, YandexWeatherCondition> BY_CODE = new HashMap<>();
+    static {
+        for (YandexWeatherCondition value : values()) {
+            BY_CODE.put(value.code, value);
+        }
+    }
+
+    private final String code;
+
+    YandexWeatherCondition(String code) {
+        this.code = code;
+    }
+
+    /**
+     * @return the value as sent by the API
+     */
+    public String getCode() {
+        return code;
+    }
+
+    public static @Nullable YandexWeatherCondition fromCode(String code) {
+        return BY_CODE.get(code);
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.yandexweather.internal.dto;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link YandexWeatherDaytime} tells whether it is light or dark at the location.
+ *
+ * @author Petr Shatsillo - Initial contribution
+ */
+@NonNullByDefault
+public enum YandexWeatherDaytime {
+    DAY("d"),
+    NIGHT("n");
+
+    private static final Map<String, YandexWeatherDaytime> BY_CODE = new HashMap<>();
+    static {
+        for (YandexWeatherDaytime value : values()) {
+            BY_CODE.put(value.code, value);
+        }
+    }
+
+    private final String code;
+
+    YandexWeatherDaytime(String code) {
+        this.code = code;
+    }
+
+    /**
+     * @return the value as sent by the API
+     */
+    public String getCode() {
+        return code;
+    }
+
+    public static @Nullable YandexWeatherDaytime fromCode(String code) {
+        return BY_CODE.get(code);
+    }
+}
@@ -0,0 +1,159 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.yandexweather.internal.dto;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link YandexWeatherFact} holds the current weather at a location, as decoded from the {@code fact} object.
+ *
+ * @author Petr Shatsillo - Initial contribution
+ */
+@NonNullByDefault
+public final class YandexWeatherFact {
+    public static final YandexWeatherFact EMPTY = new Builder().build();
+
+    private final int temperature;
+    private final int feelsLike;
+    private final int tempWater;
+    private final @Nullable String icon;
+    private final @Nullable YandexWeatherCondition condition;
+    private final double cloudness;
+    private final boolean thunder;
+    private final double windSpeed;
+    private final double windGust;
+    private final @Nullable YandexWeatherWindDirection windDir;
+    private final int pressureMm;
+    private final int humidity;
+    private final @Nullable YandexWeatherDaytime daytime;
+    private final @Nullable YandexWeatherSeason season;
+    private final double soilMoisture;
+    private final int soilTemp;
+    private final int uvIndex;
+
+    private YandexWeatherFact(Builder builder) {
+        this.temperature = builder.temperature;
+        this.feelsLike = builder.feelsLike;
+        this.tempWater = builder.tempWater;
+        this.icon = builder.icon;
+        this.condition = builder.condition;
+        this.cloudness = builder.cloudness;
+        this.thunder = builder.thunder;
+        this.windSpeed = builder.windSpeed;
+        this.windGust = builder.windGust;
+        this.windDir = builder.windDir;
+        this.pressureMm = builder.pressureMm;
+        this.humidity = builder.humidity;
+        this.daytime = builder.daytime;
+        this.season = builder.season;
+        this.soilMoisture = builder.soilMoisture;
+        this.soilTemp = builder.soilTemp;
+        this.uvIndex = builder.uvIndex;
+    }
+
+    public int getTemperature() {
+        return temperature;
+    }
+
+    public int getFeelsLike() {
+        return feelsLike;
+    }
+
+    public int getTempWater() {
+        return tempWater;
+    }
+
+    public @Nullable String getIcon() {
+        return icon;
+    }
+
+    public @Nullable YandexWeatherCondition getCondition() {
+        return condition;
+    }
+
+    public double getCloudness() {
+        return cloudness;
+    }
+
+    public boolean isThunder() {
+        return thunder;
+    }
+
+    public double getWindSpeed() {
+        return windSpeed;
+    }
+
+    public double getWindGust() {
+        return windGust;
+    }
+
+    public @Nullable YandexWeatherWindDirection getWindDir() {
+        return windDir;
+    }
+
+    public int getPressureMm() {
+        return pressureMm;
+    }
+
+    public int getHumidity() {
+        return humidity;
+    }
+
+    public @Nullable YandexWeatherDaytime getDaytime() {
+        return daytime;
+    }
+
+    public @Nullable YandexWeatherSeason getSeason() {
+        return season;
+    }
+
+    public double getSoilMoisture() {
+        return soilMoisture;
+    }
+
+    public int getSoilTemp() {
+        return soilTemp;
+    }
+
+    public int getUvIndex() {
+        return uvIndex;
+    }
+
+    /**
+     * Collects the values while a response is decoded. Every value starts absent.
+     */
+    public static final class Builder {
+        public int temperature = YandexWeatherSnapshot.ABSENT_INT;
+        public int feelsLike = YandexWeatherSnapshot.ABSENT_INT;
+        public int tempWater = YandexWeatherSnapshot.ABSENT_INT;
+        public @Nullable String icon;
+        public @Nullable YandexWeatherCondition condition;
+        public double cloudness = Double.NaN;
+        public boolean thunder = false;
+        public double windSpeed = Double.NaN;
+        public double windGust = Double.NaN;
+        public @Nullable YandexWeatherWindDirection windDir;
+        public int pressureMm = YandexWeatherSnapshot.ABSENT_INT;
+        public int humidity = YandexWeatherSnapshot.ABSENT_INT;
+        public @Nullable YandexWeatherDaytime daytime;
+        public @Nullable YandexWeatherSeason season;
+        public double soilMoisture = Double.NaN;
+        public int soilTemp = YandexWeatherSnapshot.ABSENT_INT;
+        public int uvIndex = YandexWeatherSnapshot.ABSENT_INT;
+
+        public YandexWeatherFact build() {
+            return new YandexWeatherFact(this);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.yandexweather.internal.dto;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link YandexWeatherForecastPart} holds the forecast for one part of a day.
+ *
+ * @author Petr Shatsillo - Initial contribution
+ */
+@NonNullByDefault
+public final class YandexWeatherForecastPart {
+    public static final YandexWeatherForecastPart EMPTY = new Builder().build();
+
+    private final @Nullable YandexWeatherPartName partName;
+    private final int tempMin;
+    private final int tempAvg;
+    private final int tempMax;
+    private final int feelsLike;
+    private final int tempWater;
+    private final @Nullable String icon;
+    private final @Nullable YandexWeatherCondition condition;
+    private final @Nullable YandexWeatherDaytime daytime;
+    private final double windSpeed;
+    private final double windGust;
+    private final @Nullable YandexWeatherWindDirection windDir;
+    private final int pressureMm;
+    private final int humidity;
+    private final double precMm;
+    private final int precPeriod;
+    private final int precProb;
+
+    private YandexWeatherForecastPart(Builder builder) {
+        this.partName = builder.partName;
+        this.tempMin = builder.tempMin;
+        this.tempAvg = builder.tempAvg;
+        this.tempMax = builder.tempMax;
+        this.feelsLike = builder.feelsLike;
+        this.tempWater = builder.tempWater;
+        this.icon = builder.icon;
+        this.condition = builder.condition;
+        this.daytime = builder.daytime;
+        this.windSpeed = builder.windSpeed;
+        this.windGust = builder.windGust;
+        this.windDir = builder.windDir;
+        this.pressureMm = builder.pressureMm;
+        this.humidity = builder.humidity;
+        this.precMm = builder.precMm;
+        this.precPeriod = builder.precPeriod;
+        this.precProb = builder.precProb;
+    }
+
+    public @Nullable YandexWeatherPartName getPartName() {
+        return partName;
+    }
+
+    public int getTempMin() {
+        return tempMin;
+    }
+
+    public int getTempAvg() {
+        return tempAvg;
+    }
+
+    public int getTempMax() {
+        return tempMax;
+    }
+
+    public int getFeelsLike() {
+        return feelsLike;
+    }
+
+    public int getTempWater() {
+        return tempWater;
+    }
+
+    public @Nullable String getIcon() {
+        return icon;
+    }
+
+    public @Nullable YandexWeatherCondition getCondition() {
+        return condition;
+    }
+
+    public @Nullable YandexWeatherDaytime getDaytime() {
+        return daytime;
+    }
+
+    public double getWindSpeed() {
+        return windSpeed;
+    }
+
+    public double getWindGust() {
+        return windGust;
+    }
+
+    public @Nullable YandexWeatherWindDirection getWindDir() {
+        return windDir;
+    }
+
+    public int getPressureMm() {
+        return pressureMm;
+    }
+
+    public int getHumidity() {
+        return humidity;
+    }
+
+    public double getPrecMm() {
+        return precMm;
+    }
+
+    public int getPrecPeriod() {
+        return precPeriod;
+    }
+
+    public int getPrecProb() {
+        return precProb;
+    }
+
+    /**
+     * Collects the values while a response is decoded. Every value starts absent.
+     */
+    public static final class Builder {
+        public @Nullable YandexWeatherPartName partName;
+        public int tempMin = YandexWeatherSnapshot.ABSENT_INT;
+        public int tempAvg = YandexWeatherSnapshot.ABSENT_INT;
+        public int tempMax = YandexWeatherSnapshot.ABSENT_INT;
+        public int feelsLike = YandexWeatherSnapshot.ABSENT_INT;
+        public int tempWater = YandexWeatherSnapshot.ABSENT_INT;
+        public @Nullable String icon;
+        public @Nullable YandexWeatherCondition condition;
+        public @Nullable YandexWeatherDaytime daytime;
+        public double windSpeed = Double.NaN;
+        public double windGust = Double.NaN;
+        public @Nullable YandexWeatherWindDirection windDir;
+        public int pressureMm = YandexWeatherSnapshot.ABSENT_INT;
+        public int humidity = YandexWeatherSnapshot.ABSENT_INT;
+        public double precMm = Double.NaN;
+        public int precPeriod = YandexWeatherSnapshot.ABSENT_INT;
+        public int precProb = YandexWeatherSnapshot.ABSENT_INT;
+
+        public YandexWeatherForecastPart build() {
+            return new YandexWeatherForecastPart(this);
+        }
+    }
+}
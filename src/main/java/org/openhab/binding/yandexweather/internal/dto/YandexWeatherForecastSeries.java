@@ -0,0 +1,244 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.yandexweather.internal.dto;
+
+import java.util.Arrays;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link YandexWeatherForecastSeries} holds a forecast time series, hours or day parts, in primitive columns:
+ * one array per value, all indexed by point. Absent values use the markers of {@link YandexWeatherSnapshot}. For day
+ * parts the temperature column holds the average temperature of the part.
+ *
+ * @author Petr Shatsillo - Initial contribution
+ */
+@NonNullByDefault
+public class YandexWeatherForecastSeries {
+    public static final YandexWeatherForecastSeries EMPTY = new Builder(0).build();
+
+    private final int size;
+    private final long[] time;
+    private final int[] temperature;
+    private final int[] feelsLike;
+    private final double[] windSpeed;
+    private final double[] windGust;
+    private final int[] pressureMm;
+    private final int[] humidity;
+    private final double[] precMm;
+    private final int[] precProb;
+
+    private YandexWeatherForecastSeries(Builder builder) {
+        size = builder.size;
+        time = Arrays.copyOf(builder.time, size);
+        temperature = Arrays.copyOf(builder.temperature, size);
+        feelsLike = Arrays.copyOf(builder.feelsLike, size);
+        windSpeed = Arrays.copyOf(builder.windSpeed, size);
+        windGust = Arrays.copyOf(builder.windGust, size);
+        pressureMm = Arrays.copyOf(builder.pressureMm, size);
+        humidity = Arrays.copyOf(builder.humidity, size);
+        precMm = Arrays.copyOf(builder.precMm, size);
+        precProb = Arrays.copyOf(builder.precProb, size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return start of the point as epoch milliseconds
+     */
+    public long getTime(int index) {
+        return time[index];
+    }
+
+    public int getTemperature(int index) {
+        return temperature[index];
+    }
+
+    public int getFeelsLike(int index) {
+        return feelsLike[index];
+    }
+
+    public double getWindSpeed(int index) {
+        return windSpeed[index];
+    }
+
+    public double getWindGust(int index) {
+        return windGust[index];
+    }
+
+    public int getPressureMm(int index) {
+        return pressureMm[index];
+    }
+
+    public int getHumidity(int index) {
+        return humidity[index];
+    }
+
+    public double getPrecMm(int index) {
+        return precMm[index];
+    }
+
+    public int getPrecProb(int index) {
+        return precProb[index];
+    }
+
+    /**
+     * Collects the points of a series up to a fixed capacity, so the memory of a series is bounded by the
+     * configured horizon whatever the response contains. The setters apply to the point started last with
+     * {@link #next(long)}.
+     */
+    public static final class Builder {
+        private final int capacity;
+        private int size = 0;
+        private final long[] time;
+        private final int[] temperature;
+        private final int[] feelsLike;
+        private final double[] windSpeed;
+        private final double[] windGust;
+        private final int[] pressureMm;
+        private final int[] humidity;
+        private final double[] precMm;
+        private final int[] precProb;
+
+        public Builder(int capacity) {
+            this.capacity = Math.max(0, capacity);
+            time = new long[this.capacity];
+            temperature = new int[this.capacity];
+            feelsLike = new int[this.capacity];
+            windSpeed = new double[this.capacity];
+            windGust = new double[this.capacity];
+            pressureMm = new int[this.capacity];
+            humidity = new int[this.capacity];
+            precMm = new double[this.capacity];
+            precProb = new int[this.capacity];
+        }
+
+        /**
+         * Starts a new point with all values absent.
+         *
+         * @return false if the series is full and the point was not added
+         */
+        public boolean next(long time) {
+            if (size == capacity) {
+                return false;
+            }
+            this.time[size] = time;
+            temperature[size] = YandexWeatherSnapshot.ABSENT_INT;
+            feelsLike[size] = YandexWeatherSnapshot.ABSENT_INT;
+            windSpeed[size] = Double.NaN;
+            windGust[size] = Double.NaN;
+            pressureMm[size] = YandexWeatherSnapshot.ABSENT_INT;
+            humidity[size] = YandexWeatherSnapshot.ABSENT_INT;
+            precMm[size] = Double.NaN;
+            precProb[size] = YandexWeatherSnapshot.ABSENT_INT;
+            size++;
+            return true;
+        }
+
+        /**
+         * Appends a point of another series.
+         *
+         * @return false if the series is full and the point was not added
+         */
+        public boolean copy(YandexWeatherForecastSeries series, int index) {
+            if (!next(series.getTime(index))) {
+                return false;
+            }
+            setTemperature(series.getTemperature(index));
+            setFeelsLike(series.getFeelsLike(index));
+            setWindSpeed(series.getWindSpeed(index));
+            setWindGust(series.getWindGust(index));
+            setPressureMm(series.getPressureMm(index));
+            setHumidity(series.getHumidity(index));
+            setPrecMm(series.getPrecMm(index));
+            setPrecProb(series.getPrecProb(index));
+            return true;
+        }
+
+        public boolean isFull() {
+            return size == capacity;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Removes the points starting before the given time from the start of the series.
+         */
+        public void removeBefore(long time) {
+            int removed = 0;
+            while (removed < size && this.time[removed] < time) {
+                removed++;
+            }
+            if (removed == 0) {
+                return;
+            }
+            size -= removed;
+            System.arraycopy(this.time, removed, this.time, 0, size);
+            System.arraycopy(temperature, removed, temperature, 0, size);
+            System.arraycopy(feelsLike, removed, feelsLike, 0, size);
+            System.arraycopy(windSpeed, removed, windSpeed, 0, size);
+            System.arraycopy(windGust, removed, windGust, 0, size);
+            System.arraycopy(pressureMm, removed, pressureMm, 0, size);
+            System.arraycopy(humidity, removed, humidity, 0, size);
+            System.arraycopy(precMm, removed, precMm, 0, size);
+            System.arraycopy(precProb, removed, precProb, 0, size);
+        }
+
+        /**
+         * Drops the points beyond the given number from the end of the series.
+         */
+        public void truncate(int size) {
+            this.size = Math.max(0, Math.min(this.size, size));
+        }
+
+        public void setTemperature(int value) {
+            temperature[size - 1] = value;
+        }
+
+        public void setFeelsLike(int value) {
+            feelsLike[size - 1] = value;
+        }
+
+        public void setWindSpeed(double value) {
+            windSpeed[size - 1] = value;
+        }
+
+        public void setWindGust(double value) {
+            windGust[size - 1] = value;
+        }
+
+        public void setPressureMm(int value) {
+            pressureMm[size - 1] = value;
+        }
+
+        public void setHumidity(int value) {
+            humidity[size - 1] = value;
+        }
+
+        public void setPrecMm(double value) {
+            precMm[size - 1] = value;
+        }
+
+        public void setPrecProb(int value) {
+            precProb[size - 1] = value;
+        }
+
+        public YandexWeatherForecastSeries build() {
+            return new YandexWeatherForecastSeries(this);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.yandexweather.internal.dto;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link YandexWeatherPartName} lists the parts of a day used by forecasts.
+ *
+ * @author Petr Shatsillo - Initial contribution
+ */
+@NonNullByDefault
+public enum YandexWeatherPartName {
+    NIGHT("night", 0),
+    MORNING("morning", 6),
+    DAY("day", 12),
+    EVENING("evening", 18);
+
+    private static final Map<String, YandexWeatherPartName> BY_CODE = new HashMap<>();
+    static {
+        for (YandexWeatherPartName value : values()) {
+            BY_CODE.put(value.code, value);
+        }
+    }
+
+    private final String code;
+    private final int startHour;
+
+    YandexWeatherPartName(String code, int startHour) {
+        this.code = code;
+        this.startHour = startHour;
+    }
+
+    /**
+     * @return the value as sent by the API
+     */
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * @return the local hour the part of the day begins at
+     */
+    public int getStartHour() {
+        return startHour;
+    }
+
+    public static @Nullable YandexWeatherPartName fromCode(String code) {
+        return BY_CODE.get(code);
+    }
+}
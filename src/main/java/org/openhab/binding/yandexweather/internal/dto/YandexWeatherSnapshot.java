@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.yandexweather.internal.dto;
+
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link YandexWeatherSnapshot} is an immutable, typed view of one API response. Values are decoded once, absent
+ * values are {@link #ABSENT_INT}, {@link #ABSENT_TIME}, {@link Double#NaN} or {@code null}. Times are epoch
+ * milliseconds.
+ *
+ * @author Petr Shatsillo - Initial contribution
+ */
+@NonNullByDefault
+public final class YandexWeatherSnapshot {
+    public static final int ABSENT_INT = Integer.MIN_VALUE;
+    public static final long ABSENT_TIME = Long.MIN_VALUE;
+
+    private final long observationTime;
+    private final @Nullable String locality;
+    private final YandexWeatherFact fact;
+    private final List<YandexWeatherForecastPart> parts;
+    private final int weekNo;
+    private final long sunrise;
+    private final long sunset;
+    private final long riseBegin;
+    private final long setEnd;
+    private final int moonCode;
+    private final int magneticFieldIndex;
+    private final YandexWeatherForecastSeries dayParts;
+    private final YandexWeatherForecastSeries hourly;
+
+    private YandexWeatherSnapshot(Builder builder) {
+        this.observationTime = builder.observationTime;
+        this.locality = builder.locality;
+        this.fact = builder.fact;
+        this.parts = List.copyOf(builder.parts);
+        this.weekNo = builder.weekNo;
+        this.sunrise = builder.sunrise;
+        this.sunset = builder.sunset;
+        this.riseBegin = builder.riseBegin;
+        this.setEnd = builder.setEnd;
+        this.moonCode = builder.moonCode;
+        this.magneticFieldIndex = builder.magneticFieldIndex;
+        this.dayParts = builder.dayParts;
+        this.hourly = builder.hourly;
+    }
+
+    public long getObservationTime() {
+        return observationTime;
+    }
+
+    public @Nullable String getLocality() {
+        return locality;
+    }
+
+    public YandexWeatherFact getFact() {
+        return fact;
+    }
+
+    public List<YandexWeatherForecastPart> getParts() {
+        return parts;
+    }
+
+    public int getWeekNo() {
+        return weekNo;
+    }
+
+    public long getSunrise() {
+        return sunrise;
+    }
+
+    public long getSunset() {
+        return sunset;
+    }
+
+    public long getRiseBegin() {
+        return riseBegin;
+    }
+
+    public long getSetEnd() {
+        return setEnd;
+    }
+
+    public int getMoonCode() {
+        return moonCode;
+    }
+
+    public int getMagneticFieldIndex() {
+        return magneticFieldIndex;
+    }
+
+    /**
+     * @return the day parts of all forecast days, empty for an informers response
+     */
+    public YandexWeatherForecastSeries getDayParts() {
+        return dayParts;
+    }
+
+    /**
+     * @return the hourly forecast, empty for an informers response or if hours were not requested
+     */
+    public YandexWeatherForecastSeries getHourly() {
+        return hourly;
+    }
+
+    /**
+     * @return the forecast part at the given position, or {@link YandexWeatherForecastPart#EMPTY} if there is none
+     */
+    public YandexWeatherForecastPart getPart(int index) {
+        return index < parts.size() ? parts.get(index) : YandexWeatherForecastPart.EMPTY;
+    }
+
+    /**
+     * Collects the values while a response is decoded. Every value starts absent.
+     */
+    public static final class Builder {
+        public long observationTime = ABSENT_TIME;
+        public @Nullable String locality;
+        public YandexWeatherFact fact = YandexWeatherFact.EMPTY;
+        public List<YandexWeatherForecastPart> parts = List.of();
+        public int weekNo = ABSENT_INT;
+        public long sunrise = ABSENT_TIME;
+        public long sunset = ABSENT_TIME;
+        public long riseBegin = ABSENT_TIME;
+        public long setEnd = ABSENT_TIME;
+        public int moonCode = ABSENT_INT;
+        public int magneticFieldIndex = ABSENT_INT;
+        public YandexWeatherForecastSeries dayParts = YandexWeatherForecastSeries.EMPTY;
+        public YandexWeatherForecastSeries hourly = YandexWeatherForecastSeries.EMPTY;
+
+        public YandexWeatherSnapshot build() {
+            return new YandexWeatherSnapshot(this);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.yandexweather.internal.dto;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link YandexWeatherWindDirection} lists wind directions reported by the API, {@code c} is calm.
+ *
+ * @author Petr Shatsillo - Initial contribution
+ */
+@NonNullByDefault
+public enum YandexWeatherWindDirection {
+    NORTH_WEST("nw"),
+    NORTH("n"),
+    NORTH_EAST("ne"),
+    EAST("e"),
+    SOUTH_EAST("se"),
+    SOUTH("s"),
+    SOUTH_WEST("sw"),
+    WEST("w"),
+    CALM("c");
+
+    private static final Map<String, YandexWeatherWindDirection> BY_CODE = new HashMap<>();
+    static {
+        for (YandexWeatherWindDirection value : values()) {
+            BY_CODE.put(value.code, value);
+        }
+    }
+
+    private final String code;
+
+    YandexWeatherWindDirection(String code) {
+        this.code = code;
+    }
+
+    /**
+     * @return the value as sent by the API
+     */
+    public String getCode() {
+        return code;
+    }
+
+    public static @Nullable YandexWeatherWindDirection fromCode(String code) {
+        return BY_CODE.get(code);
+    }
+}
@@ -0,0 +1,288 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.yandexweather.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests the {@link YandexWeatherApiClient} against a local HTTP server.
+ *
+ * @author Petr Shatsillo - Initial contribution
+ */
+@NonNullByDefault
+public class YandexWeatherApiClientTest {
+    private static final int REQUESTS = 20;
+    private static final int DECODE_WARMUP = 200;
+    private static final int DECODES = 1000;
+    private static final String[] ENCODINGS = { "identity", "gzip", "deflate", "raw-deflate" };
+
+    private final Logger logger = LoggerFactory.getLogger(YandexWeatherApiClientTest.class);
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private final Map<String, AtomicLong> wireBytes = new ConcurrentHashMap<>();
+    private @Nullable HttpServer server;
+    private byte[] informers = new byte[0];
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        informers = YandexWeatherJsonParserTest.fixture("informers.json").getBytes(StandardCharsets.UTF_8);
+        HttpServer server = YandexWeatherStubServer.newLoopbackServer();
+        server.createContext("/v2/informers", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            respond(exchange, HttpURLConnection.HTTP_OK, informers);
+        });
+        byte[] forecast = YandexWeatherJsonParserTest.fixture("forecast.json").getBytes(StandardCharsets.UTF_8);
+        for (String encoding : ENCODINGS) {
+            byte[] body = encode(forecast, encoding);
+            server.createContext("/" + encoding + "/v2/forecast", exchange -> {
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                if (!"identity".equals(encoding)) {
+                    exchange.getResponseHeaders().add("Content-Encoding", encoding.replace("raw-", ""));
+                }
+                wireBytes(encoding).addAndGet(body.length);
+                respond(exchange, HttpURLConnection.HTTP_OK, body);
+            });
+        }
+        server.createContext("/moved/v2/informers", exchange -> {
+            exchange.getResponseHeaders().add("Location", baseUrl() + "/informers");
+            respond(exchange, HttpURLConnection.HTTP_MOVED_TEMP, new byte[0]);
+        });
+        server.start();
+        this.server = server;
+    }
+
+    @AfterEach
+    public void tearDown() {
+        HttpServer server = this.server;
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void consecutiveRequestsReuseOneConnection() throws IOException, InterruptedException {
+        YandexWeatherApiClient client = new YandexWeatherApiClient(
+                YandexWeatherApiClient.transport(YandexWeatherApiClient.newHttpClient()), baseUrl(),
+                YandexWeatherApiClient.ENDPOINT_INFORMERS, 0, 0);
+
+        for (int i = 0; i < REQUESTS; i++) {
+            HttpResponse<InputStream> response = client.send(client.newWeatherRequest("key", "43.58", "39.72").build());
+            assertEquals(HttpURLConnection.HTTP_OK, response.statusCode());
+            try (InputStreamReader reader = new InputStreamReader(YandexWeatherApiClient.decodedBody(response),
+                    StandardCharsets.UTF_8)) {
+                YandexWeatherSnapshot snapshot = YandexWeatherJsonParser.parse(reader);
+                assertEquals("Sochi", snapshot.getLocality());
+            }
+        }
+
+        assertEquals(1, clientPorts.size(), "requests were sent over " + clientPorts.size() + " connections");
+    }
+
+    @Test
+    public void redirectIsNotFollowed() throws IOException, InterruptedException {
+        YandexWeatherApiClient client = new YandexWeatherApiClient(
+                YandexWeatherApiClient.transport(YandexWeatherApiClient.newHttpClient()),
+                "http://localhost:" + port() + "/moved/v2", YandexWeatherApiClient.ENDPOINT_INFORMERS, 0, 0);
+
+        HttpResponse<InputStream> response = client.send(client.newWeatherRequest("key", "43.58", "39.72").build());
+        response.body().close();
+
+        assertEquals(HttpURLConnection.HTTP_MOVED_TEMP, response.statusCode());
+        assertTrue(clientPorts.isEmpty());
+    }
+
+    @Test
+    public void compressedResponsesDecodeEqually() throws IOException, InterruptedException {
+        YandexWeatherApiClient.Transport transport = YandexWeatherApiClient
+                .transport(YandexWeatherApiClient.newHttpClient());
+        YandexWeatherSnapshot expected = fetchForecast(transport, "identity");
+
+        for (String encoding : ENCODINGS) {
+            YandexWeatherSnapshot snapshot = fetchForecast(transport, encoding);
+            assertEquals(expected.getObservationTime(), snapshot.getObservationTime(), encoding);
+            assertEquals(expected.getFact().getTemperature(), snapshot.getFact().getTemperature(), encoding);
+            assertEquals(expected.getMagneticFieldIndex(), snapshot.getMagneticFieldIndex(), encoding);
+            assertEquals(expected.getDayParts().size(), snapshot.getDayParts().size(), encoding);
+            assertEquals(expected.getHourly().size(), snapshot.getHourly().size(), encoding);
+            assertEquals(expected.getPart(0).getTempAvg(), snapshot.getPart(0).getTempAvg(), encoding);
+        }
+        long identity = wireBytes("identity").get();
+        for (String encoding : ENCODINGS) {
+            if (!"identity".equals(encoding)) {
+                long compressed = wireBytes(encoding).get();
+                assertTrue(compressed * 2 < identity, encoding + " sent " + compressed + " of " + identity + " bytes");
+            }
+        }
+    }
+
+    @Test
+    public void encodingIsMatchedInAnyLocale() throws IOException, InterruptedException {
+        byte[] body = encode(YandexWeatherJsonParserTest.fixture("forecast.json").getBytes(StandardCharsets.UTF_8),
+                "gzip");
+        HttpServer server = this.server;
+        assertNotNull(server);
+        server.createContext("/upper/v2/forecast", exchange -> {
+            exchange.getResponseHeaders().add("Content-Encoding", "GZIP");
+            respond(exchange, HttpURLConnection.HTTP_OK, body);
+        });
+        YandexWeatherApiClient client = new YandexWeatherApiClient(
+                YandexWeatherApiClient.transport(YandexWeatherApiClient.newHttpClient()),
+                "http://localhost:" + port() + "/upper/v2", YandexWeatherApiClient.ENDPOINT_FORECAST, 2, 24);
+        Locale locale = Locale.getDefault();
+        // lower-cases the I of GZIP to a dotless one
+        Locale.setDefault(Locale.forLanguageTag("tr"));
+        try {
+            HttpResponse<InputStream> response = client
+                    .send(client.newWeatherRequest("key", "43.58", "39.72").build());
+            try (InputStreamReader reader = new InputStreamReader(YandexWeatherApiClient.decodedBody(response),
+                    StandardCharsets.UTF_8)) {
+                YandexWeatherSnapshot snapshot = YandexWeatherJsonParser.parse(reader, 2, 24);
+                assertNotEquals(YandexWeatherSnapshot.ABSENT_INT, snapshot.getFact().getTemperature());
+            }
+        } finally {
+            Locale.setDefault(locale);
+        }
+    }
+
+    @Test
+    public void receivedBytesAreCountedOnTheWire() throws IOException, InterruptedException {
+        YandexWeatherApiClient client = new YandexWeatherApiClient(
+                YandexWeatherApiClient.transport(YandexWeatherApiClient.newHttpClient()),
+                "http://localhost:" + port() + "/gzip/v2", YandexWeatherApiClient.ENDPOINT_FORECAST, 1, 0);
+
+        HttpResponse<InputStream> response = client.send(client.newWeatherRequest("key", "43.58", "39.72").build());
+        InputStream body = response.body();
+        // the parser stops after the first day, the rest is drained on close
+        try (InputStreamReader reader = new InputStreamReader(YandexWeatherApiClient.decodedBody(response, body),
+                StandardCharsets.UTF_8)) {
+            YandexWeatherJsonParser.parse(reader, client.getForecastDays(), client.getForecastHours());
+        }
+
+        assertEquals(wireBytes("gzip").get(), YandexWeatherApiClient.bytesReceived(body));
+    }
+
+    @Test
+    public void decodeCostOfCompressedResponses() throws IOException, InterruptedException {
+        HttpClient httpClient = YandexWeatherApiClient.newHttpClient();
+        for (String encoding : ENCODINGS) {
+            HttpResponse<byte[]> response = httpClient.send(YandexWeatherApiClient
+                    .newRequest(URI.create("http://localhost:" + port() + "/" + encoding + "/v2/forecast")).build(),
+                    BodyHandlers.ofByteArray());
+            byte[] body = response.body();
+            long started = 0;
+            for (int i = -DECODE_WARMUP; i < DECODES; i++) {
+                if (i == 0) {
+                    started = System.nanoTime();
+                }
+                try (InputStreamReader reader = new InputStreamReader(
+                        YandexWeatherApiClient.decodedBody(response, new ByteArrayInputStream(body)),
+                        StandardCharsets.UTF_8)) {
+                    YandexWeatherJsonParser.parse(reader, 2, 24);
+                }
+            }
+            long elapsed = System.nanoTime() - started;
+            logger.info("{}: {} bytes on the wire, decoded in {} us", encoding, body.length,
+                    TimeUnit.NANOSECONDS.toMicros(elapsed) / DECODES);
+        }
+    }
+
+    private YandexWeatherSnapshot fetchForecast(YandexWeatherApiClient.Transport transport, String encoding)
+            throws IOException, InterruptedException {
+        YandexWeatherApiClient client = new YandexWeatherApiClient(transport,
+                "http://localhost:" + port() + "/" + encoding + "/v2", YandexWeatherApiClient.ENDPOINT_FORECAST, 2,
+                24);
+        HttpResponse<InputStream> response = client.send(client.newWeatherRequest("key", "43.58", "39.72").build());
+        assertEquals(HttpURLConnection.HTTP_OK, response.statusCode());
+        try (InputStreamReader reader = new InputStreamReader(YandexWeatherApiClient.decodedBody(response),
+                StandardCharsets.UTF_8)) {
+            return YandexWeatherJsonParser.parse(reader, client.getForecastDays(), client.getForecastHours());
+        }
+    }
+
+    private static byte[] encode(byte[] body, String encoding) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        switch (encoding) {
+            case "gzip":
+                try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                    gzip.write(body);
+                }
+                return out.toByteArray();
+            case "deflate":
+            case "raw-deflate":
+                Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, "raw-deflate".equals(encoding));
+                try (DeflaterOutputStream deflate = new DeflaterOutputStream(out, deflater)) {
+                    deflate.write(body);
+                } finally {
+                    deflater.end();
+                }
+                return out.toByteArray();
+            default:
+                return body;
+        }
+    }
+
+    private AtomicLong wireBytes(String encoding) {
+        return wireBytes.computeIfAbsent(encoding, key -> new AtomicLong());
+    }
+
+    private String baseUrl() {
+        return "http://localhost:" + port() + "/v2";
+    }
+
+    private int port() {
+        HttpServer server = this.server;
+        return server == null ? 0 : server.getAddress().getPort();
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.yandexweather.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.openhab.binding.yandexweather.internal.YandexWeatherBindingConstants.THING_TYPE_API_BRIDGE;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+import org.openhab.binding.yandexweather.handler.YandexWeatherHandler;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherSnapshot;
+import org.openhab.core.thing.Bridge;
+import org.openhab.core.thing.binding.ThingHandlerCallback;
+import org.openhab.core.thing.binding.builder.BridgeBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Micro-benchmarks of the hot paths of a refresh: decoding a response, fanning the snapshot out to the things of
+ * its location, and both together behind a request to a local server. They run with the unit tests rather than in
+ * a JMH module, which the single bundle build of the binding has no place for. Each one reports operations per second
+ * and bytes allocated per operation, like JMH with {@code -prof gc} would, and only asserts that it did its work, so
+ * a slow build machine doesn't fail it.
+ *
+ * @author Petr Shatsillo - Initial contribution
+ */
+@NonNullByDefault
+public class YandexWeatherBenchmarkTest {
+    private static final long WARMUP_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final long MEASURE_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final int THINGS = 100;
+
+    private final Logger logger = LoggerFactory.getLogger(YandexWeatherBenchmarkTest.class);
+    /** Keeps the results alive, so the JIT can't drop the work */
+    private volatile @Nullable Object sink;
+
+    @Test
+    public void parseInformers() throws IOException, InterruptedException {
+        String response = YandexWeatherJsonParserTest.fixture("informers.json");
+
+        Result result = measure("parse informers",
+                () -> sink = YandexWeatherJsonParser.parse(new StringReader(response)));
+
+        assertTrue(result.operations() > 0);
+    }
+
+    @Test
+    public void parseForecast() throws IOException, InterruptedException {
+        String response = YandexWeatherJsonParserTest.fixture("forecast.json");
+
+        Result result = measure("parse forecast",
+                () -> sink = YandexWeatherJsonParser.parse(new StringReader(response), 7, 24));
+
+        assertTrue(result.operations() > 0);
+    }
+
+    @Test
+    public void fanOut() throws IOException, InterruptedException {
+        String response = YandexWeatherJsonParserTest.fixture("informers.json");
+        // two snapshots with different values, so every round publishes changed states
+        YandexWeatherSnapshot[] snapshots = { YandexWeatherJsonParser.parse(new StringReader(response)),
+                YandexWeatherJsonParser.parse(new StringReader(changed(response))) };
+        AtomicLong updates = new AtomicLong();
+        List<YandexWeatherHandler> handlers = initializedThings(updates);
+        int[] round = { 0 };
+
+        Result result = measure("fan-out to " + THINGS + " things", () -> {
+            YandexWeatherSnapshot snapshot = snapshots[round[0]++ & 1];
+            for (YandexWeatherHandler handler : handlers) {
+                handler.updateValues(snapshot, false);
+            }
+        });
+
+        assertTrue(result.operations() > 0);
+        assertTrue(updates.get() >= result.operations() * THINGS, "every round updates the temperature");
+        handlers.forEach(YandexWeatherHandler::dispose);
+    }
+
+    @Test
+    public void fetchToPublish() throws IOException, InterruptedException {
+        String response = YandexWeatherJsonParserTest.fixture("informers.json");
+        byte[][] bodies = { response.getBytes(StandardCharsets.UTF_8),
+                changed(response).getBytes(StandardCharsets.UTF_8) };
+        AtomicLong updates = new AtomicLong();
+        List<YandexWeatherHandler> handlers = initializedThings(updates);
+        try (YandexWeatherStubServer server = new YandexWeatherStubServer(request -> bodies[(int) (request & 1)])) {
+            YandexWeatherApiClient client = new YandexWeatherApiClient(
+                    YandexWeatherApiClient.transport(YandexWeatherApiClient.newHttpClient()), server.baseUrl(),
+                    YandexWeatherApiClient.ENDPOINT_INFORMERS, 0, 0);
+
+            Result result = measure("fetch and publish to " + THINGS + " things", () -> {
+                HttpResponse<InputStream> fetched = client
+                        .send(client.newWeatherRequest("key", "43.58", "39.72").build());
+                YandexWeatherSnapshot snapshot;
+                try (Reader reader = new InputStreamReader(YandexWeatherApiClient.decodedBody(fetched),
+                        StandardCharsets.UTF_8)) {
+                    snapshot = YandexWeatherJsonParser.parse(reader);
+                }
+                for (YandexWeatherHandler handler : handlers) {
+                    handler.updateValues(snapshot, false);
+                }
+            });
+
+            assertTrue(result.operations() > 0);
+            assertTrue(server.requests() >= result.operations(), "every round fetches a response");
+            assertTrue(updates.get() >= result.operations() * THINGS, "every round updates the temperature");
+        } finally {
+            handlers.forEach(YandexWeatherHandler::dispose);
+        }
+    }
+
+    /**
+     * @return the response with another temperature
+     */
+    private static String changed(String response) {
+        return response.replace("\"temp\":17", "\"temp\":18");
+    }
+
+    /**
+     * @return initialized handlers of things at one location, all with every channel linked
+     */
+    private static List<YandexWeatherHandler> initializedThings(AtomicLong updates) {
+        ThingHandlerCallback callback = mock(ThingHandlerCallback.class, withSettings().stubOnly());
+        when(callback.isChannelLinked(any())).thenReturn(true);
+        doAnswer(invocation -> updates.incrementAndGet()).when(callback).stateUpdated(any(), any());
+        // a bridge without handler, icons are not part of the fan-out
+        Bridge bridge = BridgeBuilder.create(THING_TYPE_API_BRIDGE, "benchmark").build();
+        when(callback.getBridge(any())).thenReturn(bridge);
+        List<YandexWeatherHandler> handlers = new ArrayList<>();
+        for (int i = 0; i < THINGS; i++) {
+            YandexWeatherHandler handler = new YandexWeatherHandler(
+                    YandexWeatherTestThings.weatherThing(bridge.getUID(), "thing" + i, "43.58,39.72"));
+            handler.setCallback(callback);
+            handler.initialize();
+            handlers.add(handler);
+        }
+        return handlers;
+    }
+
+    private Result measure(String name, Operation operation) throws IOException, InterruptedException {
+        long warmupEnd = System.nanoTime() + WARMUP_NANOS;
+        while (System.nanoTime() < warmupEnd) {
+            operation.run();
+        }
+        long allocatedBefore = allocatedBytes();
+        long started = System.nanoTime();
+        long operations = 0;
+        long elapsed;
+        do {
+            operation.run();
+            operations++;
+            elapsed = System.nanoTime() - started;
+        } while (elapsed < MEASURE_NANOS);
+        long allocatedAfter = allocatedBytes();
+        Result result = new Result(operations, operations * TimeUnit.SECONDS.toNanos(1) / elapsed,
+                allocatedBefore < 0 ? -1 : (allocatedAfter - allocatedBefore) / operations);
+        logger.info("{}: {} ops/s, {} bytes allocated per op", name, result.operationsPerSecond(),
+                result.bytesPerOperation());
+        return result;
+    }
+
+    /**
+     * @return the bytes allocated by the current thread so far, or a negative value if the JVM can't tell
+     */
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported()) {
+            return threads.getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        void run() throws IOException, InterruptedException;
+    }
+
+    private record Result(long operations, long operationsPerSecond, long bytesPerOperation) {
+    }
+}
@@ -0,0 +1,202 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.yandexweather.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openhab.binding.yandexweather.handler.YandexWeatherBridgeHandler;
+import org.openhab.binding.yandexweather.handler.YandexWeatherHandler;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherSnapshot;
+import org.openhab.core.thing.Bridge;
+import org.openhab.core.thing.ThingStatus;
+import org.openhab.core.thing.ThingStatusInfo;
+import org.openhab.core.thing.binding.ThingHandlerCallback;
+
+/**
+ * Tests the thing registry of the {@link YandexWeatherBridgeHandler} under concurrent registration.
+ *
+ * @author Petr Shatsillo - Initial contribution
+ */
+@NonNullByDefault
+public class YandexWeatherBridgeHandlerTest {
+    private static final int THREADS = 8;
+    private static final int THINGS_PER_THREAD = 50;
+    private static final int ROUNDS = 20;
+    /** Things share these locations, so tiles gain and lose things concurrently */
+    private static final int LOCATIONS = 40;
+    /** Slots of 10 ms, every location is requested again within a second */
+    private static final int REQUESTS_PER_DAY = 8_640_000;
+    private static final long TIMEOUT = TimeUnit.SECONDS.toMillis(30);
+    /** The snapshot handed over on registration and at least one refresh after it */
+    private static final int REFRESHED = 2;
+    private static final long QUIET_PERIOD = TimeUnit.SECONDS.toMillis(1);
+
+    private @TempDir @NonNullByDefault({}) Path userData;
+    private final List<String> bridgeFailures = new ArrayList<>();
+    private @Nullable YandexWeatherBridgeHandler bridgeHandler;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        YandexWeatherTestThings.prepareUserData(userData);
+        ThingHandlerCallback bridgeCallback = mock(ThingHandlerCallback.class, withSettings().stubOnly());
+        doAnswer(invocation -> {
+            ThingStatusInfo info = invocation.getArgument(1);
+            if (info.getStatus() == ThingStatus.OFFLINE) {
+                synchronized (bridgeFailures) {
+                    bridgeFailures.add(info.toString());
+                }
+            }
+            return null;
+        }).when(bridgeCallback).statusUpdated(any(), any());
+        bridgeHandler = YandexWeatherTestThings.initializedBridge(
+                new YandexWeatherHandlerFactory(new YandexWeatherService()), "stress",
+                YandexWeatherTestThings.replayConfig(REQUESTS_PER_DAY, 5), bridgeCallback);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        YandexWeatherBridgeHandler bridgeHandler = this.bridgeHandler;
+        if (bridgeHandler != null) {
+            bridgeHandler.dispose();
+        }
+        YandexWeatherTestThings.clearUserData();
+    }
+
+    @Test
+    public void thingsComeAndGoDuringPolling() throws Exception {
+        YandexWeatherBridgeHandler bridgeHandler = this.bridgeHandler;
+        assertNotNull(bridgeHandler);
+        Bridge bridge = bridgeHandler.getThing();
+        List<TestThing> things = new ArrayList<>();
+        for (int i = 0; i < THREADS * THINGS_PER_THREAD; i++) {
+            things.add(new TestThing(bridge, i));
+        }
+
+        ExecutorService threads = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> churn = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                List<TestThing> own = things.subList(t * THINGS_PER_THREAD, (t + 1) * THINGS_PER_THREAD);
+                Random random = new Random(t);
+                churn.add(threads.submit(() -> {
+                    for (int round = 0; round < ROUNDS; round++) {
+                        for (TestThing thing : own) {
+                            if (random.nextBoolean()) {
+                                thing.toggle();
+                            }
+                        }
+                    }
+                    // every second thing stays, registered anew so it has to get the weather again
+                    for (int i = 0; i < own.size(); i++) {
+                        own.get(i).setRegistered(false);
+                        if (i % 2 == 0) {
+                            own.get(i).setRegistered(true);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : churn) {
+                result.get(TIMEOUT, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+
+        List<TestThing> registered = things.stream().filter(TestThing::isRegistered).toList();
+        assertEquals(things.size() / 2, registered.size());
+        assertTrue(
+                YandexWeatherTestThings.waitFor(TIMEOUT,
+                        () -> registered.stream().allMatch(thing -> thing.updates.get() >= REFRESHED)),
+                "not every registered thing got refreshed");
+
+        // a refresh running while a thing goes may still deliver to it, so the counting starts after a while
+        registered.forEach(thing -> thing.setRegistered(false));
+        Thread.sleep(QUIET_PERIOD);
+        things.forEach(thing -> thing.updates.set(0));
+        Thread.sleep(QUIET_PERIOD);
+        assertEquals(0, things.stream().mapToInt(thing -> thing.updates.get()).sum(),
+                "unregistered things still get updates");
+        synchronized (bridgeFailures) {
+            assertEquals(List.of(), bridgeFailures);
+        }
+    }
+
+    /**
+     * A thing with its handler, counting the snapshots handed to it since it was last registered. The calls are
+     * counted rather than the published states, because a replayed response repeats the same values, which the
+     * handler doesn't publish again.
+     */
+    private static class TestThing {
+        private final YandexWeatherHandler handler;
+        private final AtomicInteger updates = new AtomicInteger();
+        private boolean registered;
+
+        TestThing(Bridge bridge, int index) {
+            String location = String.format(Locale.ROOT, "%.2f,37.60", 55 + index % LOCATIONS * 0.01);
+            handler = new YandexWeatherHandler(
+                    YandexWeatherTestThings.weatherThing(bridge.getUID(), "thing" + index, location)) {
+                @Override
+                public int updateValues(YandexWeatherSnapshot snapshot, boolean stale) {
+                    updates.incrementAndGet();
+                    return super.updateValues(snapshot, stale);
+                }
+            };
+            ThingHandlerCallback callback = mock(ThingHandlerCallback.class, withSettings().stubOnly());
+            when(callback.isChannelLinked(any())).thenReturn(true);
+            when(callback.getBridge(any())).thenReturn(bridge);
+            handler.setCallback(callback);
+        }
+
+        void toggle() {
+            setRegistered(!registered);
+        }
+
+        void setRegistered(boolean registered) {
+            if (registered == this.registered) {
+                return;
+            }
+            if (registered) {
+                updates.set(0);
+                handler.initialize();
+            } else {
+                handler.dispose();
+            }
+            this.registered = registered;
+        }
+
+        boolean isRegistered() {
+            return registered;
+        }
+    }
+}
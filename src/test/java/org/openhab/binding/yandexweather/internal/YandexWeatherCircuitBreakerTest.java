@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.yandexweather.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.openhab.binding.yandexweather.internal.YandexWeatherCircuitBreaker.FAILURE_THRESHOLD;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.openhab.binding.yandexweather.internal.YandexWeatherCircuitBreaker.State;
+
+/**
+ * Tests the states of the {@link YandexWeatherCircuitBreaker} and its backoff.
+ *
+ * @author Petr Shatsillo - Initial contribution
+ */
+@NonNullByDefault
+public class YandexWeatherCircuitBreakerTest {
+    private static final long NOW = 1_000_000;
+    private static final long BASE_DELAY = TimeUnit.SECONDS.toMillis(30);
+    private static final long MAX_DELAY = TimeUnit.HOURS.toMillis(1);
+
+    @Test
+    public void opensAfterFailuresInARow() {
+        YandexWeatherCircuitBreaker breaker = new YandexWeatherCircuitBreaker();
+        for (int i = 1; i < FAILURE_THRESHOLD; i++) {
+            assertFalse(breaker.onFailure(NOW));
+            assertTrue(breaker.allowRequest(NOW));
+        }
+        breaker.onSuccess();
+        for (int i = 1; i < FAILURE_THRESHOLD; i++) {
+            assertFalse(breaker.onFailure(NOW), "failures before a success are forgotten");
+        }
+        assertTrue(breaker.onFailure(NOW));
+        assertEquals(State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest(NOW));
+        assertDelay(BASE_DELAY, breaker.getRetryAt() - NOW);
+        assertFalse(breaker.onFailure(NOW), "a failure of a request sent before opening doesn't open again");
+    }
+
+    @Test
+    public void onlyOneProbeIsLetThrough() {
+        YandexWeatherCircuitBreaker breaker = opened();
+        long retryAt = breaker.getRetryAt();
+        assertFalse(breaker.allowRequest(retryAt - 1));
+        assertTrue(breaker.allowRequest(retryAt));
+        assertEquals(State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest(retryAt));
+
+        breaker.onSuccess();
+        assertEquals(State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest(retryAt));
+        assertTrue(breaker.allowRequest(retryAt));
+        assertEquals(0, breaker.getRetryAt());
+    }
+
+    @Test
+    public void unsentProbeIsHandedBack() {
+        YandexWeatherCircuitBreaker breaker = opened();
+        long retryAt = breaker.getRetryAt();
+        assertTrue(breaker.allowRequest(retryAt));
+        breaker.releaseProbe();
+        assertEquals(State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.allowRequest(retryAt), "the next caller may probe");
+        assertFalse(breaker.allowRequest(retryAt));
+    }
+
+    @Test
+    public void failedProbeDoublesTheDelay() {
+        YandexWeatherCircuitBreaker breaker = opened();
+        long delay = BASE_DELAY;
+        for (int i = 0; i < 10; i++) {
+            long retryAt = breaker.getRetryAt();
+            assertTrue(breaker.allowRequest(retryAt));
+            assertTrue(breaker.onFailure(retryAt));
+            delay = Math.min(MAX_DELAY, delay * 2);
+            assertDelay(delay, breaker.getRetryAt() - retryAt);
+        }
+
+        // a success starts the backoff over
+        assertTrue(breaker.allowRequest(breaker.getRetryAt()));
+        breaker.onSuccess();
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            breaker.onFailure(NOW);
+        }
+        assertDelay(BASE_DELAY, breaker.getRetryAt() - NOW);
+    }
+
+    @Test
+    public void retryTimeOfTheApiIsKept() {
+        YandexWeatherCircuitBreaker breaker = new YandexWeatherCircuitBreaker();
+        breaker.openUntil(NOW + 5000);
+        assertEquals(State.OPEN, breaker.getState());
+        assertEquals(NOW + 5000, breaker.getRetryAt());
+        assertFalse(breaker.allowRequest(NOW + 4999));
+        assertTrue(breaker.allowRequest(NOW + 5000));
+    }
+
+    @Test
+    public void haltedCircuitWaitsForReset() {
+        YandexWeatherCircuitBreaker breaker = opened();
+        breaker.halt();
+        assertEquals(State.HALTED, breaker.getState());
+        assertEquals(0, breaker.getRetryAt());
+        breaker.onSuccess();
+        breaker.openUntil(NOW);
+        assertFalse(breaker.onFailure(NOW));
+        assertEquals(State.HALTED, breaker.getState());
+        assertFalse(breaker.allowRequest(Long.MAX_VALUE));
+
+        breaker.reset();
+        assertEquals(State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest(NOW));
+        for (int i = 1; i < FAILURE_THRESHOLD; i++) {
+            assertFalse(breaker.onFailure(NOW));
+        }
+    }
+
+    private static YandexWeatherCircuitBreaker opened() {
+        YandexWeatherCircuitBreaker breaker = new YandexWeatherCircuitBreaker();
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            breaker.onFailure(NOW);
+        }
+        assertEquals(State.OPEN, breaker.getState());
+        return breaker;
+    }
+
+    /**
+     * The delay is jittered over the upper half of the nominal one.
+     */
+    private static void assertDelay(long nominal, long delay) {
+        assertTrue(delay >= nominal / 2 && delay <= nominal, delay + " ms instead of up to " + nominal + " ms");
+    }
+}
@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.yandexweather.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherFact;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherSnapshot;
+
+/**
+ * Tests the values of {@link YandexWeatherDerivedMetrics} against published reference values: the dew point tables of
+ * the Magnus formula, the heat index table of the US National Weather Service and the wind chill table of Environment
+ * Canada.
+ *
+ * @author Petr Shatsillo - Initial contribution
+ */
+@NonNullByDefault
+public class YandexWeatherDerivedMetricsTest {
+    private static final long START = 1_714_510_800_000L;
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+    private static final int ABSENT = YandexWeatherSnapshot.ABSENT_INT;
+
+    @Test
+    public void dewPoint() {
+        assertEquals(9.3, current(20, 50, 0).getDewPoint());
+        assertEquals(26.2, current(30, 80, 0).getDewPoint());
+        assertEquals(-14.4, current(-10, 70, 0).getDewPoint());
+        assertEquals(0.0, current(0, 100, 0).getDewPoint());
+        assertEquals(Double.NaN, current(20, 0, 0).getDewPoint());
+        assertEquals(Double.NaN, current(20, ABSENT, 0).getDewPoint());
+    }
+
+    @Test
+    public void heatIndex() {
+        // 90 F and 70 % are 106 F in the table of the NWS, 32 C are 89.6 F
+        assertEquals(40.4, current(32, 70, 0).getHeatIndex());
+        // the adjustments of the regression for dry air and for humid air just above 80 F
+        assertEquals(34.7, current(38, 10, 0).getHeatIndex());
+        assertEquals(31.1, current(27, 90, 0).getHeatIndex());
+        // the simple formula, as its average with the temperature stays below 80 F
+        assertEquals(26.3, current(27, 20, 0).getHeatIndex());
+    }
+
+    @Test
+    public void heatIndexBelow80FahrenheitIsTheTemperature() {
+        assertEquals(26.0, current(26, 90, 0).getHeatIndex());
+        assertEquals(-5.0, current(-5, 50, 0).getHeatIndex());
+        assertEquals(Double.NaN, current(ABSENT, 50, 0).getHeatIndex());
+    }
+
+    @Test
+    public void windChill() {
+        // -33 C, -18 C and -9 C in the table of Environment Canada
+        assertEquals(-32.6, current(-20, 50, 30 / 3.6).getWindChill());
+        assertEquals(-17.9, current(-10, 50, 20 / 3.6).getWindChill());
+        assertEquals(-9.3, current(-5, 50, 10 / 3.6).getWindChill());
+    }
+
+    @Test
+    public void windChillOutsideItsRangeIsTheTemperature() {
+        assertEquals(11.0, current(11, 50, 20).getWindChill());
+        assertEquals(-10.0, current(-10, 50, 4.8 / 3.6).getWindChill());
+        assertEquals(-10.0, current(-10, 50, 0).getWindChill());
+        assertEquals(Double.NaN, current(-10, 50, Double.NaN).getWindChill());
+    }
+
+    @Test
+    public void pressureTendencyNeedsThreeHours() {
+        YandexWeatherDerivedMetrics metrics = new YandexWeatherDerivedMetrics();
+        for (long time = 0; time < 3 * HOUR; time += 10 * MINUTE) {
+            assertTrue(metrics.update(observation(START + time, 20, 760 - (int) (time / HOUR))));
+            assertEquals(Double.NaN, metrics.getPressureTendency(), "after " + time / MINUTE + " min");
+        }
+        metrics.update(observation(START + 3 * HOUR, 20, 757));
+        assertEquals(-3.0, metrics.getPressureTendency());
+    }
+
+    @Test
+    public void olderPressureIsScaledToThreeHours() {
+        YandexWeatherDerivedMetrics metrics = new YandexWeatherDerivedMetrics();
+        metrics.update(observation(START, 20, 760));
+        metrics.update(observation(START + 4 * HOUR, 20, 756));
+        assertEquals(-3.0, metrics.getPressureTendency());
+
+        // too old to tell the tendency of the last three hours
+        metrics.clear();
+        metrics.update(observation(START, 20, 760));
+        metrics.update(observation(START + 7 * HOUR, 20, 756));
+        assertEquals(Double.NaN, metrics.getPressureTendency());
+    }
+
+    @Test
+    public void frequentObservationsAreDownsampled() {
+        YandexWeatherDerivedMetrics metrics = new YandexWeatherDerivedMetrics();
+        // one observation a minute for ten hours, more than the buffer holds without downsampling
+        for (long time = 0; time <= 10 * HOUR; time += MINUTE) {
+            int temperature = 10 + (int) (time / HOUR);
+            int pressure = 760 - (int) (time / HOUR);
+            assertTrue(metrics.update(observation(START + time, temperature, pressure)));
+        }
+        assertEquals(-3.0, metrics.getPressureTendency());
+        assertEquals(1.0, metrics.getTemperatureTrend());
+    }
+
+    @Test
+    public void repeatedSnapshotIsIgnored() {
+        YandexWeatherDerivedMetrics metrics = new YandexWeatherDerivedMetrics();
+        YandexWeatherSnapshot snapshot = observation(START, 20, 760);
+        assertTrue(metrics.update(snapshot));
+        assertFalse(metrics.update(snapshot));
+        assertFalse(metrics.update(observation(START - MINUTE, 20, 760)));
+        assertFalse(metrics.update(new YandexWeatherSnapshot.Builder().build()));
+    }
+
+    private static YandexWeatherDerivedMetrics current(int temperature, int humidity, double windSpeed) {
+        YandexWeatherFact.Builder fact = new YandexWeatherFact.Builder();
+        fact.temperature = temperature;
+        fact.humidity = humidity;
+        fact.windSpeed = windSpeed;
+        YandexWeatherSnapshot.Builder snapshot = new YandexWeatherSnapshot.Builder();
+        snapshot.observationTime = START;
+        snapshot.fact = fact.build();
+        YandexWeatherDerivedMetrics metrics = new YandexWeatherDerivedMetrics();
+        assertTrue(metrics.update(snapshot.build()));
+        return metrics;
+    }
+
+    private static YandexWeatherSnapshot observation(long time, int temperature, int pressureMm) {
+        YandexWeatherFact.Builder fact = new YandexWeatherFact.Builder();
+        fact.temperature = temperature;
+        fact.pressureMm = pressureMm;
+        YandexWeatherSnapshot.Builder snapshot = new YandexWeatherSnapshot.Builder();
+        snapshot.observationTime = time;
+        snapshot.fact = fact.build();
+        return snapshot.build();
+    }
+}
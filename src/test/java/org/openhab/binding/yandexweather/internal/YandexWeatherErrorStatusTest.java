@@ -0,0 +1,218 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.yandexweather.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.openhab.binding.yandexweather.internal.YandexWeatherBindingConstants.*;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openhab.binding.yandexweather.handler.YandexWeatherBridgeHandler;
+import org.openhab.binding.yandexweather.handler.YandexWeatherHandler;
+import org.openhab.binding.yandexweather.internal.YandexWeatherStubServer.Responder;
+import org.openhab.binding.yandexweather.internal.YandexWeatherStubServer.Response;
+import org.openhab.core.thing.ChannelUID;
+import org.openhab.core.thing.ThingStatus;
+import org.openhab.core.thing.ThingStatusDetail;
+import org.openhab.core.thing.ThingStatusInfo;
+import org.openhab.core.thing.binding.ThingHandlerCallback;
+
+/**
+ * Tests how a bridge reacts to the error statuses of the API: rejected keys and exhausted quotas fail over to the
+ * other keys, rate limiting waits as long as the API asks, and server errors open the circuit.
+ *
+ * @author Petr Shatsillo - Initial contribution
+ */
+@NonNullByDefault
+public class YandexWeatherErrorStatusTest {
+    /** A request every 500 ms, long enough for one to be answered before the next one is sent */
+    private static final int REQUESTS_PER_DAY = 172_800;
+    private static final long TIMEOUT = TimeUnit.SECONDS.toMillis(10);
+    /** Long enough for a bridge that isn't stopped to send more requests */
+    private static final long QUIET_PERIOD = 1500;
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+
+    private @TempDir @NonNullByDefault({}) Path userData;
+    private final List<ThingStatusInfo> bridgeStatuses = new CopyOnWriteArrayList<>();
+    private final AtomicInteger updates = new AtomicInteger();
+    private final List<Long> requestTimes = new CopyOnWriteArrayList<>();
+    private @Nullable YandexWeatherStubServer server;
+    private @Nullable YandexWeatherBridgeHandler bridgeHandler;
+    private @Nullable YandexWeatherHandler handler;
+    private byte[] weather = new byte[0];
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        YandexWeatherTestThings.prepareUserData(userData);
+        weather = YandexWeatherJsonParserTest.fixture("informers.json").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        YandexWeatherHandler handler = this.handler;
+        if (handler != null) {
+            handler.dispose();
+        }
+        YandexWeatherBridgeHandler bridgeHandler = this.bridgeHandler;
+        if (bridgeHandler != null) {
+            bridgeHandler.dispose();
+        }
+        YandexWeatherStubServer server = this.server;
+        if (server != null) {
+            server.close();
+        }
+        YandexWeatherTestThings.clearUserData();
+    }
+
+    @Test
+    public void rejectedKeyFailsOverToTheNextOne() throws Exception {
+        YandexWeatherStubServer server = start("bad,good",
+                (request, apiKey) -> "bad".equals(apiKey) ? error(HttpURLConnection.HTTP_UNAUTHORIZED)
+                        : Response.ok(weather));
+
+        assertTrue(YandexWeatherTestThings.waitFor(TIMEOUT, () -> updates.get() > 0), "no weather");
+        Thread.sleep(QUIET_PERIOD);
+        List<String> apiKeys = server.apiKeys();
+        assertEquals(List.of("bad", "good"), apiKeys.subList(0, 2));
+        assertEquals(List.of("bad"), apiKeys.stream().filter("bad"::equals).toList(), "rejected key used again");
+        assertEquals(List.of(), offline());
+    }
+
+    @Test
+    public void lastRejectedKeyStopsTheBridge() throws Exception {
+        YandexWeatherStubServer server = start("bad", (request, apiKey) -> error(HttpURLConnection.HTTP_UNAUTHORIZED));
+
+        assertTrue(YandexWeatherTestThings.waitFor(TIMEOUT, () -> !offline().isEmpty()), "bridge still online");
+        assertEquals(ThingStatusDetail.CONFIGURATION_ERROR, offline().get(0).getStatusDetail());
+        Thread.sleep(QUIET_PERIOD);
+        assertEquals(1, server.requests());
+    }
+
+    @Test
+    public void exhaustedKeyFailsOverToTheNextOne() throws Exception {
+        YandexWeatherStubServer server = start("used,fresh",
+                (request, apiKey) -> "used".equals(apiKey) ? error(HttpURLConnection.HTTP_FORBIDDEN)
+                        : Response.ok(weather));
+
+        assertTrue(YandexWeatherTestThings.waitFor(TIMEOUT, () -> updates.get() > 0), "no weather");
+        Thread.sleep(QUIET_PERIOD);
+        List<String> apiKeys = server.apiKeys();
+        assertEquals(List.of("used", "fresh"), apiKeys.subList(0, 2));
+        assertEquals(List.of("used"), apiKeys.stream().filter("used"::equals).toList(), "exhausted key used again");
+        assertEquals(List.of(), offline());
+    }
+
+    @Test
+    public void lastExhaustedKeyPausesTheBridge() throws Exception {
+        YandexWeatherStubServer server = start("used", (request, apiKey) -> error(HttpURLConnection.HTTP_FORBIDDEN));
+
+        assertTrue(YandexWeatherTestThings.waitFor(TIMEOUT, () -> !offline().isEmpty()), "bridge still online");
+        assertEquals(ThingStatusDetail.DUTY_CYCLE, offline().get(0).getStatusDetail());
+        Thread.sleep(QUIET_PERIOD);
+        assertEquals(1, server.requests());
+    }
+
+    @Test
+    public void rateLimitWaitsForRetryAfter() throws Exception {
+        start("key", (request, apiKey) -> request == 0
+                ? Response.error(HTTP_TOO_MANY_REQUESTS, Map.of("Retry-After", "1"))
+                : Response.ok(weather));
+
+        assertTrue(YandexWeatherTestThings.waitFor(TIMEOUT, () -> updates.get() > 0), "no weather");
+        assertEquals(ThingStatusDetail.DUTY_CYCLE, offline().get(0).getStatusDetail());
+        assertTrue(requestTimes.get(1) - requestTimes.get(0) >= 900,
+                "retried after " + (requestTimes.get(1) - requestTimes.get(0)) + " ms");
+        assertEquals(ThingStatus.ONLINE, bridgeStatuses.get(bridgeStatuses.size() - 1).getStatus());
+    }
+
+    @Test
+    public void serverErrorsOpenTheCircuit() throws Exception {
+        YandexWeatherStubServer server = start("key",
+                (request, apiKey) -> error(HttpURLConnection.HTTP_UNAVAILABLE));
+
+        assertTrue(YandexWeatherTestThings.waitFor(TIMEOUT, () -> !offline().isEmpty()), "bridge still online");
+        assertEquals(ThingStatusDetail.COMMUNICATION_ERROR, offline().get(0).getStatusDetail());
+        Thread.sleep(QUIET_PERIOD);
+        // the circuit opens for at least 15 s
+        assertEquals(YandexWeatherCircuitBreaker.FAILURE_THRESHOLD, server.requests());
+    }
+
+    @Test
+    public void clientErrorOnlyConcernsTheLocation() throws Exception {
+        YandexWeatherStubServer server = start("key",
+                (request, apiKey) -> error(HttpURLConnection.HTTP_BAD_REQUEST));
+
+        assertTrue(YandexWeatherTestThings.waitFor(TIMEOUT, () -> server.requests() > 2), "requests stopped");
+        assertEquals(List.of(), offline());
+    }
+
+    private YandexWeatherStubServer start(String apiKeys, Responder responder) throws IOException {
+        YandexWeatherStubServer server = new YandexWeatherStubServer((request, apiKey) -> {
+            requestTimes.add(System.currentTimeMillis());
+            return responder.respond(request, apiKey);
+        });
+        this.server = server;
+        ThingHandlerCallback bridgeCallback = mock(ThingHandlerCallback.class, withSettings().stubOnly());
+        doAnswer(invocation -> bridgeStatuses.add(invocation.getArgument(1))).when(bridgeCallback)
+                .statusUpdated(any(), any());
+        Map<String, Object> config = YandexWeatherTestThings.serverConfig(REQUESTS_PER_DAY, server);
+        config.put("api", apiKeys);
+        YandexWeatherBridgeHandler bridgeHandler = YandexWeatherTestThings.initializedBridge(
+                new YandexWeatherHandlerFactory(new YandexWeatherService()), "errors", config, bridgeCallback);
+        this.bridgeHandler = bridgeHandler;
+
+        YandexWeatherHandler handler = new YandexWeatherHandler(
+                YandexWeatherTestThings.weatherThing(bridgeHandler.getThing().getUID(), "thing", "55.75,37.62"));
+        ThingHandlerCallback callback = mock(ThingHandlerCallback.class, withSettings().stubOnly());
+        when(callback.isChannelLinked(any())).thenReturn(true);
+        when(callback.getBridge(any())).thenReturn(bridgeHandler.getThing());
+        ChannelUID temperature = new ChannelUID(handler.getThing().getUID(), GROUP_CURRENT, CHANNEL_TEMPERATURE);
+        doAnswer(invocation -> temperature.equals(invocation.getArgument(0)) ? updates.incrementAndGet() : 0)
+                .when(callback).stateUpdated(any(), any());
+        handler.setCallback(callback);
+        handler.initialize();
+        this.handler = handler;
+        return server;
+    }
+
+    private List<ThingStatusInfo> offline() {
+        List<ThingStatusInfo> offline = new ArrayList<>();
+        for (ThingStatusInfo status : bridgeStatuses) {
+            if (status.getStatus() == ThingStatus.OFFLINE) {
+                offline.add(status);
+            }
+        }
+        return offline;
+    }
+
+    private static Response error(int status) {
+        return Response.error(status, Map.of());
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.yandexweather.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests {@link YandexWeatherFiles#writeAtomically(Path, YandexWeatherFiles.Contents)}.
+ *
+ * @author Petr Shatsillo - Initial contribution
+ */
+@NonNullByDefault
+public class YandexWeatherFilesTest {
+    private @TempDir @NonNullByDefault({}) Path directory;
+
+    @Test
+    public void fileIsReplaced() throws IOException {
+        Path file = directory.resolve("sub").resolve("counter.properties");
+        YandexWeatherFiles.writeAtomically(file, out -> out.write("used=1".getBytes(StandardCharsets.UTF_8)));
+        YandexWeatherFiles.writeAtomically(file, out -> out.write("used=2".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals("used=2", Files.readString(file));
+        assertEquals(List.of(file), files(file.getParent()));
+    }
+
+    @Test
+    public void failedWriteKeepsTheOldFileAndLeavesNoTemporaryFile() throws IOException {
+        Path file = directory.resolve("counter.properties");
+        YandexWeatherFiles.writeAtomically(file, out -> out.write("used=1".getBytes(StandardCharsets.UTF_8)));
+
+        assertThrows(IOException.class, () -> YandexWeatherFiles.writeAtomically(file, out -> {
+            out.write("used=".getBytes(StandardCharsets.UTF_8));
+            throw new IOException("disk full");
+        }));
+        assertThrows(IllegalStateException.class, () -> YandexWeatherFiles.writeAtomically(file, out -> {
+            throw new IllegalStateException();
+        }));
+        assertEquals("used=1", Files.readString(file));
+        assertEquals(List.of(file), files(directory));
+    }
+
+    private static List<Path> files(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.toList();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.yandexweather.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openhab.core.library.types.RawType;
+
+/**
+ * Tests the revalidation of icons in the {@link YandexWeatherIconCache}.
+ *
+ * @author Petr Shatsillo - Initial contribution
+ */
+@NonNullByDefault
+public class YandexWeatherIconCacheTest {
+    private static final String CODE = "skc_d";
+    private static final byte[] IMAGE = "<svg/>".getBytes(StandardCharsets.UTF_8);
+
+    private @TempDir @NonNullByDefault({}) Path directory;
+
+    @Test
+    public void failedRevalidationIsNotRepeatedOnEveryLookup() throws IOException {
+        // an icon validated long ago, so the first lookup revalidates it
+        Files.write(directory.resolve(CODE + ".svg"), IMAGE);
+        Files.writeString(directory.resolve(CODE + ".properties"), "etag=\"1\"\nvalidated=0\n");
+        AtomicInteger requests = new AtomicInteger();
+        YandexWeatherIconCache cache = new YandexWeatherIconCache(request -> {
+            requests.incrementAndGet();
+            throw new IOException("offline");
+        }, directory, Runnable::run);
+
+        for (int i = 0; i < 3; i++) {
+            RawType icon = cache.getIcon(CODE);
+            assertArrayEquals(IMAGE, icon.getBytes());
+        }
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    public void missingIconFailsEveryTime() {
+        AtomicInteger requests = new AtomicInteger();
+        YandexWeatherIconCache cache = new YandexWeatherIconCache(request -> {
+            requests.incrementAndGet();
+            throw new IOException("offline");
+        }, directory, Runnable::run);
+
+        assertThrows(IOException.class, () -> cache.getIcon(CODE));
+        assertThrows(IOException.class, () -> cache.getIcon(CODE));
+        assertEquals(2, requests.get());
+    }
+}
@@ -0,0 +1,337 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.yandexweather.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherCondition;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherDaytime;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherFact;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherForecastPart;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherForecastSeries;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherPartName;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherSeason;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherSnapshot;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherWindDirection;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Tests the {@link YandexWeatherJsonParser} against a JSON tree read of the same response, the way the binding read
+ * responses before the parser streamed them.
+ *
+ * @author Petr Shatsillo - Initial contribution
+ */
+@NonNullByDefault
+public class YandexWeatherJsonParserTest {
+    private static final DateTimeFormatter LOCAL_TIME = DateTimeFormatter.ofPattern("HH:mm");
+    private static final long START = 1714510800;
+    private static final int DAYS = 7;
+    private static final int HOURS = 48;
+    /** Generous bound of the heap a snapshot with {@link #DAYS} days of parts and {@link #HOURS} hours retains */
+    private static final long MAX_SNAPSHOT_BYTES = 16 * 1024;
+    private static final int SNAPSHOTS = 1000;
+
+    @Test
+    public void informersMatchTreeRead() throws IOException {
+        String response = fixture("informers.json");
+        JsonObject json = JsonParser.parseString(response).getAsJsonObject();
+        YandexWeatherSnapshot snapshot = YandexWeatherJsonParser.parse(new StringReader(response));
+
+        assertEquals(Instant.parse(json.get("now_dt").getAsString()).toEpochMilli(), snapshot.getObservationTime());
+        assertEquals(json.getAsJsonObject("geo_object").getAsJsonObject("locality").get("name").getAsString(),
+                snapshot.getLocality());
+        assertFact(json.getAsJsonObject("fact"), snapshot.getFact());
+
+        JsonObject forecast = json.getAsJsonObject("forecast");
+        ZoneOffset offset = offsetOf(json);
+        assertEquals(forecast.get("week").getAsInt(), snapshot.getWeekNo());
+        assertEquals(forecast.get("moon_code").getAsInt(), snapshot.getMoonCode());
+        assertEquals(forecast.get("sunrise").getAsString(), localTime(snapshot.getSunrise(), offset));
+        assertEquals(forecast.get("sunset").getAsString(), localTime(snapshot.getSunset(), offset));
+        assertEquals(2, snapshot.getParts().size());
+        for (int i = 0; i < 2; i++) {
+            assertPart(forecast.getAsJsonArray("parts").get(i).getAsJsonObject(), snapshot.getPart(i));
+        }
+    }
+
+    @Test
+    public void forecastDayValuesMatchTreeRead() throws IOException {
+        String response = fixture("forecast.json");
+        JsonObject json = JsonParser.parseString(response).getAsJsonObject();
+        YandexWeatherSnapshot snapshot = YandexWeatherJsonParser.parse(new StringReader(response), 7, 24);
+
+        assertFact(json.getAsJsonObject("fact"), snapshot.getFact());
+        JsonObject day = json.getAsJsonArray("forecasts").get(0).getAsJsonObject();
+        ZoneOffset offset = offsetOf(json);
+        assertEquals(day.get("week").getAsInt(), snapshot.getWeekNo());
+        assertEquals(day.get("moon_code").getAsInt(), snapshot.getMoonCode());
+        assertEquals(day.getAsJsonObject("biomet").get("index").getAsInt(), snapshot.getMagneticFieldIndex());
+        assertEquals(day.get("sunrise").getAsString(), localTime(snapshot.getSunrise(), offset));
+        assertEquals(day.get("sunset").getAsString(), localTime(snapshot.getSunset(), offset));
+        assertEquals(day.get("rise_begin").getAsString(), localTime(snapshot.getRiseBegin(), offset));
+        assertEquals(day.get("set_end").getAsString(), localTime(snapshot.getSetEnd(), offset));
+        assertEquals(2, snapshot.getParts().size());
+    }
+
+    @Test
+    public void longForecastIsCappedToTheHorizon() throws IOException {
+        YandexWeatherSnapshot snapshot = YandexWeatherJsonParser.parse(new StringReader(longForecast(30)), DAYS,
+                HOURS);
+
+        assertEquals(DAYS * 4, snapshot.getDayParts().size());
+        assertEquals(HOURS, snapshot.getHourly().size());
+        assertEquals(START * 1000, snapshot.getHourly().getTime(0));
+        assertEquals((START + (HOURS - 1) * 3600) * 1000, snapshot.getHourly().getTime(HOURS - 1));
+        assertEquals(HOURS - 1, snapshot.getHourly().getTemperature(HOURS - 1));
+        assertEquals(2, snapshot.getParts().size());
+    }
+
+    @Test
+    public void retainedMemoryDoesNotGrowWithTheResponse() throws IOException {
+        long shortForecast = retainedBytesPerSnapshot(longForecast(DAYS));
+        long longForecast = retainedBytesPerSnapshot(longForecast(60));
+
+        assertTrue(longForecast < MAX_SNAPSHOT_BYTES, longForecast + " bytes per snapshot");
+        assertTrue(longForecast < shortForecast * 2,
+                "a 60 day forecast retains " + longForecast + " bytes, a " + DAYS + " day one " + shortForecast);
+    }
+
+    @Test
+    public void missingValuesAreAbsent() throws IOException {
+        YandexWeatherSnapshot snapshot = YandexWeatherJsonParser
+                .parse(new StringReader("{\"now_dt\":\"2024-05-01T09:51:12Z\",\"fact\":{\"temp\":null}}"));
+
+        assertEquals(YandexWeatherSnapshot.ABSENT_INT, snapshot.getFact().getTemperature());
+        assertTrue(Double.isNaN(snapshot.getFact().getWindSpeed()));
+        assertNull(snapshot.getFact().getCondition());
+        assertNull(snapshot.getLocality());
+        assertEquals(YandexWeatherSnapshot.ABSENT_TIME, snapshot.getSunrise());
+        assertTrue(snapshot.getParts().isEmpty());
+    }
+
+    @Test
+    public void nonNumericValuesAreAbsent() throws IOException {
+        YandexWeatherSnapshot snapshot = YandexWeatherJsonParser.parse(new StringReader("{\"now_dt\":"
+                + "\"2024-05-01T09:51:12Z\",\"info\":{\"tzinfo\":{\"offset\":\"MSK\"}},\"fact\":{\"temp\":\"warm\","
+                + "\"pressure_mm\":\"745\",\"humidity\":\"NaN\",\"wind_speed\":\"1e999\",\"feels_like\":1e12,"
+                + "\"condition\":\"clear\"}}"));
+
+        YandexWeatherFact fact = snapshot.getFact();
+        assertEquals(YandexWeatherSnapshot.ABSENT_INT, fact.getTemperature());
+        assertEquals(745, fact.getPressureMm());
+        assertEquals(YandexWeatherSnapshot.ABSENT_INT, fact.getHumidity());
+        assertTrue(Double.isNaN(fact.getWindSpeed()));
+        assertEquals(YandexWeatherSnapshot.ABSENT_INT, fact.getFeelsLike());
+        assertEquals(YandexWeatherCondition.CLEAR, fact.getCondition());
+    }
+
+    @Test
+    public void fieldOrderDoesNotMatter() throws IOException {
+        String response = fixture("forecast.json");
+        assertSameSnapshot(YandexWeatherJsonParser.parse(new StringReader(response), DAYS, HOURS),
+                YandexWeatherJsonParser.parse(new StringReader(reversed(response)), DAYS, HOURS));
+
+        // now after the hours, some of which are already over
+        String forecast = longForecast(DAYS).replace("{\"now\":" + START, "{\"now\":" + (START + 5 * 3600));
+        YandexWeatherSnapshot expected = YandexWeatherJsonParser.parse(new StringReader(forecast), DAYS, HOURS);
+        assertEquals((START + 5 * 3600) * 1000, expected.getHourly().getTime(0));
+        assertEquals(HOURS, expected.getHourly().size());
+        assertSameSnapshot(expected, YandexWeatherJsonParser.parse(new StringReader(reversed(forecast)), DAYS, HOURS));
+    }
+
+    @Test
+    public void malformedResponseFails() {
+        assertThrows(IOException.class, () -> YandexWeatherJsonParser.parse(new StringReader("[1, 2]")));
+    }
+
+    private static void assertFact(JsonObject expected, YandexWeatherFact fact) {
+        assertEquals(expected.get("temp").getAsInt(), fact.getTemperature());
+        assertEquals(expected.get("feels_like").getAsInt(), fact.getFeelsLike());
+        assertEquals(expected.get("temp_water").getAsInt(), fact.getTempWater());
+        assertEquals(expected.get("icon").getAsString(), fact.getIcon());
+        assertEquals(YandexWeatherCondition.fromCode(expected.get("condition").getAsString()), fact.getCondition());
+        assertEquals(expected.get("cloudness").getAsDouble(), fact.getCloudness());
+        assertEquals(expected.get("is_thunder").getAsBoolean(), fact.isThunder());
+        assertEquals(expected.get("wind_speed").getAsDouble(), fact.getWindSpeed());
+        assertEquals(expected.get("wind_gust").getAsDouble(), fact.getWindGust());
+        assertEquals(YandexWeatherWindDirection.fromCode(expected.get("wind_dir").getAsString()), fact.getWindDir());
+        assertEquals(expected.get("pressure_mm").getAsInt(), fact.getPressureMm());
+        assertEquals(expected.get("humidity").getAsInt(), fact.getHumidity());
+        assertEquals(YandexWeatherDaytime.fromCode(expected.get("daytime").getAsString()), fact.getDaytime());
+        assertEquals(YandexWeatherSeason.fromCode(expected.get("season").getAsString()), fact.getSeason());
+        assertEquals(expected.get("soil_moisture").getAsDouble(), fact.getSoilMoisture());
+        assertEquals(expected.get("soil_temp").getAsInt(), fact.getSoilTemp());
+        assertEquals(expected.get("uv_index").getAsInt(), fact.getUvIndex());
+    }
+
+    private static void assertPart(JsonObject expected, YandexWeatherForecastPart part) {
+        assertEquals(YandexWeatherPartName.fromCode(expected.get("part_name").getAsString()), part.getPartName());
+        assertEquals(expected.get("temp_min").getAsInt(), part.getTempMin());
+        assertEquals(expected.get("temp_avg").getAsInt(), part.getTempAvg());
+        assertEquals(expected.get("temp_max").getAsInt(), part.getTempMax());
+        assertEquals(expected.get("feels_like").getAsInt(), part.getFeelsLike());
+        assertEquals(expected.get("icon").getAsString(), part.getIcon());
+        assertEquals(YandexWeatherCondition.fromCode(expected.get("condition").getAsString()), part.getCondition());
+        assertEquals(YandexWeatherDaytime.fromCode(expected.get("daytime").getAsString()), part.getDaytime());
+        assertEquals(expected.get("wind_speed").getAsDouble(), part.getWindSpeed());
+        assertEquals(expected.get("wind_gust").getAsDouble(), part.getWindGust());
+        assertEquals(YandexWeatherWindDirection.fromCode(expected.get("wind_dir").getAsString()), part.getWindDir());
+        assertEquals(expected.get("pressure_mm").getAsInt(), part.getPressureMm());
+        assertEquals(expected.get("humidity").getAsInt(), part.getHumidity());
+        assertEquals(expected.get("prec_mm").getAsDouble(), part.getPrecMm());
+        assertEquals(expected.get("prec_prob").getAsInt(), part.getPrecProb());
+        assertEquals(expected.get("prec_period").getAsInt(), part.getPrecPeriod());
+        if (expected.has("temp_water")) {
+            assertEquals(expected.get("temp_water").getAsInt(), part.getTempWater());
+        }
+    }
+
+    private static long retainedBytesPerSnapshot(String response) throws IOException {
+        YandexWeatherSnapshot[] snapshots = new YandexWeatherSnapshot[SNAPSHOTS];
+        long before = usedHeap();
+        for (int i = 0; i < SNAPSHOTS; i++) {
+            snapshots[i] = YandexWeatherJsonParser.parse(new StringReader(response), DAYS, HOURS);
+        }
+        long retained = usedHeap() - before;
+        assertEquals(HOURS, snapshots[SNAPSHOTS - 1].getHourly().size());
+        return Math.max(0, retained) / SNAPSHOTS;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void assertSameSnapshot(YandexWeatherSnapshot expected, YandexWeatherSnapshot actual) {
+        assertEquals(expected.getObservationTime(), actual.getObservationTime());
+        assertEquals(expected.getFact().getTemperature(), actual.getFact().getTemperature());
+        assertEquals(expected.getSunrise(), actual.getSunrise());
+        assertEquals(expected.getWeekNo(), actual.getWeekNo());
+        assertEquals(expected.getParts().size(), actual.getParts().size());
+        for (int i = 0; i < expected.getParts().size(); i++) {
+            assertEquals(expected.getPart(i).getPartName(), actual.getPart(i).getPartName());
+            assertEquals(expected.getPart(i).getTempAvg(), actual.getPart(i).getTempAvg());
+        }
+        assertSameSeries(expected.getDayParts(), actual.getDayParts());
+        assertSameSeries(expected.getHourly(), actual.getHourly());
+    }
+
+    private static void assertSameSeries(YandexWeatherForecastSeries expected, YandexWeatherForecastSeries actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getTime(i), actual.getTime(i));
+            assertEquals(expected.getTemperature(i), actual.getTemperature(i));
+            assertEquals(expected.getPrecProb(i), actual.getPrecProb(i));
+        }
+    }
+
+    /**
+     * @return the response with the fields of the response and of every forecast day in reverse order, so the
+     *         current time comes after the hours and the start of a day after its parts
+     */
+    private static String reversed(String response) {
+        JsonObject json = reversed(JsonParser.parseString(response).getAsJsonObject());
+        JsonArray days = new JsonArray();
+        for (JsonElement day : json.getAsJsonArray("forecasts")) {
+            days.add(reversed(day.getAsJsonObject()));
+        }
+        json.add("forecasts", days);
+        return json.toString();
+    }
+
+    private static JsonObject reversed(JsonObject json) {
+        List<Map.Entry<String, JsonElement>> entries = new ArrayList<>(json.entrySet());
+        Collections.reverse(entries);
+        JsonObject reversed = new JsonObject();
+        entries.forEach(entry -> reversed.add(entry.getKey(), entry.getValue()));
+        return reversed;
+    }
+
+    /**
+     * @return a forecast response of the given number of days, each with all parts and 24 hours
+     */
+    private static String longForecast(int days) {
+        StringBuilder json = new StringBuilder("{\"now\":").append(START)
+                .append(",\"now_dt\":\"2024-04-30T21:00:00Z\",\"info\":{\"tzinfo\":{\"offset\":10800}},")
+                .append("\"fact\":{\"temp\":12,\"condition\":\"clear\"},\"forecasts\":[");
+        for (int day = 0; day < days; day++) {
+            long dayStart = START + day * 86400L;
+            json.append(day == 0 ? "" : ",").append("{\"date_ts\":").append(dayStart)
+                    .append(",\"week\":18,\"sunrise\":\"05:36\",\"sunset\":\"19:47\",\"parts\":{");
+            String[] names = { "night", "morning", "day", "evening" };
+            for (int part = 0; part < names.length; part++) {
+                json.append(part == 0 ? "" : ",").append('"').append(names[part]).append("\":{\"temp_avg\":")
+                        .append(part).append(",\"wind_speed\":2.5,\"humidity\":70,\"prec_prob\":10}");
+            }
+            json.append(",\"day_short\":{\"temp\":15}},\"hours\":[");
+            for (int hour = 0; hour < 24; hour++) {
+                json.append(hour == 0 ? "" : ",").append("{\"hour_ts\":").append(dayStart + hour * 3600L)
+                        .append(",\"temp\":").append(day * 24 + hour)
+                        .append(",\"wind_speed\":2.5,\"pressure_mm\":760,\"prec_mm\":0.2}");
+            }
+            json.append("]}");
+        }
+        return json.append("]}").toString();
+    }
+
+    private static ZoneOffset offsetOf(JsonObject json) {
+        return ZoneOffset.ofTotalSeconds(
+                json.getAsJsonObject("info").getAsJsonObject("tzinfo").get("offset").getAsInt());
+    }
+
+    private static String localTime(long epoch, ZoneOffset offset) {
+        return LOCAL_TIME.format(Instant.ofEpochMilli(epoch).atOffset(offset));
+    }
+
+    static String fixture(String name) throws IOException {
+        try (Reader reader = fixtureReader(name)) {
+            StringBuilder builder = new StringBuilder();
+            char[] buffer = new char[4096];
+            for (int read = reader.read(buffer); read >= 0; read = reader.read(buffer)) {
+                builder.append(buffer, 0, read);
+            }
+            return builder.toString();
+        }
+    }
+
+    static Reader fixtureReader(String name) throws IOException {
+        InputStream stream = YandexWeatherJsonParserTest.class.getResourceAsStream(name);
+        if (stream == null) {
+            throw new IOException("Missing fixture " + name);
+        }
+        return new InputStreamReader(stream, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.yandexweather.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests how the {@link YandexWeatherKeyPool} hands out its keys and fails over between them.
+ *
+ * @author Petr Shatsillo - Initial contribution
+ */
+@NonNullByDefault
+public class YandexWeatherKeyPoolTest {
+    /** A burst of two requests per key, one more every three hours */
+    private static final int REQUESTS_PER_DAY = 8;
+    private static final int BURST = REQUESTS_PER_DAY / 4;
+    private static final long REFILL = YandexWeatherRefreshScheduler.DAY_MILLIS / REQUESTS_PER_DAY;
+
+    private @TempDir @NonNullByDefault({}) Path quotaDirectory;
+    private @NonNullByDefault({}) YandexWeatherKeyPool pool;
+    private long now;
+
+    @BeforeEach
+    public void setUp() {
+        pool = new YandexWeatherKeyPool(List.of("a", "b"), quotaDirectory, "test", REQUESTS_PER_DAY);
+        now = System.currentTimeMillis();
+        pool.assign("tile-a");
+        pool.assign("tile-b");
+    }
+
+    @Test
+    public void tileUsesItsKeyThenFailsOver() {
+        for (int i = 0; i < BURST; i++) {
+            assertEquals("a", pool.acquire("tile-a", now));
+        }
+        assertEquals("b", pool.acquire("tile-a", now));
+        assertEquals("b", pool.acquire("tile-b", now));
+        assertNull(pool.acquire("tile-b", now));
+
+        long next = pool.nextAvailable(now);
+        assertTrue(next > now && next <= now + REFILL, "next request at " + (next - now) + " ms");
+        assertEquals("a", pool.acquire("tile-a", next));
+        assertEquals(BURST * 2 + 1, pool.used(next));
+    }
+
+    @Test
+    public void exhaustedKeyWaitsForTheNextDay() {
+        pool.exhaust("a", now);
+        assertEquals(REQUESTS_PER_DAY, pool.used(now));
+        assertEquals(REQUESTS_PER_DAY, pool.remaining(now));
+        assertEquals("b", pool.acquire("tile-a", now));
+        assertEquals("b", pool.acquire("tile-a", now));
+        assertNull(pool.acquire("tile-a", now));
+
+        // whichever comes first, key b refilling or key a getting its quota back
+        assertEquals(Math.min(now + REFILL, nextDay(now)), pool.nextAvailable(now));
+        assertEquals("b", pool.acquire("tile-b", now + REFILL));
+    }
+
+    @Test
+    public void quotaUsedUpOnDiskExhaustsTheKey() {
+        YandexWeatherKeyPool pool = new YandexWeatherKeyPool(List.of("a"), quotaDirectory, "test", 1);
+        pool.assign("tile-a");
+        assertEquals("a", pool.acquire("tile-a", now));
+        pool.flush();
+
+        YandexWeatherKeyPool restarted = new YandexWeatherKeyPool(List.of("a"), quotaDirectory, "test", 1);
+        restarted.assign("tile-a");
+        assertEquals(1, restarted.used(now));
+        assertNull(restarted.acquire("tile-a", now));
+        assertEquals(nextDay(now), restarted.nextAvailable(now));
+    }
+
+    @Test
+    public void disabledKeyIsNotUsedAgain() {
+        pool.disable("a");
+        assertTrue(pool.hasEnabledKeys());
+        assertEquals("b", pool.acquire("tile-a", now));
+        assertEquals(REQUESTS_PER_DAY - 1, pool.remaining(now));
+
+        pool.disable("b");
+        assertFalse(pool.hasEnabledKeys());
+        assertNull(pool.acquire("tile-b", now));
+        assertEquals(Long.MAX_VALUE, pool.nextAvailable(now));
+        assertEquals(0, pool.remaining(now));
+    }
+
+    private static long nextDay(long now) {
+        return Instant.ofEpochMilli(now).atZone(ZoneId.systemDefault()).toLocalDate().plusDays(1)
+                .atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.yandexweather.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.openhab.binding.yandexweather.internal.YandexWeatherRefreshScheduler.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherCondition;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherFact;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherForecastPart;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherSnapshot;
+
+/**
+ * Tests how the {@link YandexWeatherRefreshScheduler} spreads the locations over the day and splits the quota.
+ *
+ * @author Petr Shatsillo - Initial contribution
+ */
+@NonNullByDefault
+public class YandexWeatherRefreshSchedulerTest {
+    /** Slots of one second */
+    private static final int REQUESTS_PER_DAY = 86400;
+    private static final long SLOT = DAY_MILLIS / REQUESTS_PER_DAY;
+    private static final int LOCATIONS = 10;
+
+    @Test
+    public void locationsAddedTogetherTakeOneSlotEach() {
+        YandexWeatherRefreshScheduler scheduler = scheduler(LOCATIONS, 0);
+        assertEquals(LOCATIONS, scheduler.pollDue(0).size());
+        long period = LOCATIONS * SLOT;
+        assertEquals(period, scheduler.period("location0"));
+
+        Set<String> polled = new HashSet<>();
+        for (int slot = 0; slot < LOCATIONS; slot++) {
+            long due = period + slot * SLOT;
+            assertEquals(due, scheduler.nextDeadline());
+            assertEquals(List.of(), scheduler.pollDue(due - 1));
+            List<String> keys = scheduler.pollDue(due);
+            assertEquals(1, keys.size(), "locations due in slot " + slot);
+            polled.addAll(keys);
+        }
+        assertEquals(LOCATIONS, polled.size());
+    }
+
+    @Test
+    public void locationsPolledLateTakeConsecutiveSlots() {
+        YandexWeatherRefreshScheduler scheduler = scheduler(2, 0);
+        scheduler.pollDue(0);
+        long late = 3 * SLOT + SLOT / 2;
+        assertEquals(2, scheduler.pollDue(late).size());
+        // both want the first slot one period after now, the second one moves to the slot after it
+        long first = late + 2 * SLOT + SLOT / 2;
+        assertEquals(first, scheduler.nextDeadline());
+        assertEquals(1, scheduler.pollDue(first).size());
+        assertEquals(first + SLOT, scheduler.nextDeadline());
+    }
+
+    @Test
+    public void periodsSpendTheQuota() {
+        int requestsPerDay = 1000;
+        YandexWeatherRefreshScheduler scheduler = scheduler(LOCATIONS, 0);
+        scheduler.setRequestsPerDay(requestsPerDay);
+        assertEquals(requestsPerDay, requestsPerDay(scheduler, LOCATIONS), 0.5);
+
+        scheduler.setWeight("location0", VOLATILE_WEIGHT);
+        scheduler.setWeight("location1", VOLATILE_WEIGHT);
+        scheduler.setWeight("location2", STABLE_WEIGHT);
+        assertEquals(requestsPerDay, requestsPerDay(scheduler, LOCATIONS), 0.5);
+        assertEquals(4 * scheduler.period("location0"), scheduler.period("location2"), 1);
+
+        scheduler.remove("location3");
+        assertEquals(requestsPerDay, requestsPerDay(scheduler, LOCATIONS), 0.5);
+    }
+
+    @Test
+    public void unchangedWeatherIsStable() {
+        YandexWeatherSnapshot snapshot = snapshot(750, 15, YandexWeatherCondition.CLEAR, 10);
+        assertEquals(DEFAULT_WEIGHT, weightOf(null, snapshot));
+        assertEquals(STABLE_WEIGHT, weightOf(snapshot, snapshot(750, 15, YandexWeatherCondition.CLEAR, 10)));
+        assertEquals(DEFAULT_WEIGHT, weightOf(snapshot, snapshot(750, 16, YandexWeatherCondition.CLEAR, 10)));
+        assertEquals(DEFAULT_WEIGHT, weightOf(snapshot, snapshot(751, 15, YandexWeatherCondition.CLEAR, 10)));
+    }
+
+    @Test
+    public void comingChangeIsVolatile() {
+        YandexWeatherSnapshot snapshot = snapshot(750, 15, YandexWeatherCondition.CLEAR, 10);
+        assertEquals(VOLATILE_WEIGHT, weightOf(snapshot, snapshot(749, 15, YandexWeatherCondition.CLEAR, 10)));
+        assertEquals(VOLATILE_WEIGHT, weightOf(snapshot, snapshot(750, 15, YandexWeatherCondition.CLEAR, 30)));
+        assertEquals(DEFAULT_WEIGHT, weightOf(snapshot, snapshot(750, 15, YandexWeatherCondition.CLEAR, 29)));
+    }
+
+    @Test
+    public void missingValuesAreNotStable() {
+        int absent = YandexWeatherSnapshot.ABSENT_INT;
+        YandexWeatherSnapshot empty = snapshot(absent, absent, null, absent);
+        assertEquals(DEFAULT_WEIGHT, weightOf(empty, snapshot(absent, absent, null, absent)));
+        YandexWeatherSnapshot snapshot = snapshot(750, 15, YandexWeatherCondition.CLEAR, absent);
+        assertEquals(DEFAULT_WEIGHT, weightOf(snapshot, snapshot(750, 15, YandexWeatherCondition.CLEAR, absent)));
+        assertEquals(DEFAULT_WEIGHT, weightOf(snapshot, empty));
+    }
+
+    private static YandexWeatherRefreshScheduler scheduler(int locations, long now) {
+        YandexWeatherRefreshScheduler scheduler = new YandexWeatherRefreshScheduler();
+        scheduler.setRequestsPerDay(REQUESTS_PER_DAY);
+        for (int i = 0; i < locations; i++) {
+            assertTrue(scheduler.add("location" + i, now));
+        }
+        return scheduler;
+    }
+
+    private static double requestsPerDay(YandexWeatherRefreshScheduler scheduler, int locations) {
+        double requests = 0;
+        for (int i = 0; i < locations; i++) {
+            long period = scheduler.period("location" + i);
+            if (period != NO_DEADLINE) {
+                requests += (double) DAY_MILLIS / period;
+            }
+        }
+        return requests;
+    }
+
+    private static YandexWeatherSnapshot snapshot(int pressureMm, int temperature,
+            @Nullable YandexWeatherCondition condition, int precProb) {
+        YandexWeatherFact.Builder fact = new YandexWeatherFact.Builder();
+        fact.pressureMm = pressureMm;
+        fact.temperature = temperature;
+        fact.condition = condition;
+        YandexWeatherForecastPart.Builder part = new YandexWeatherForecastPart.Builder();
+        part.precProb = precProb;
+        YandexWeatherSnapshot.Builder snapshot = new YandexWeatherSnapshot.Builder();
+        snapshot.fact = fact.build();
+        snapshot.parts = new ArrayList<>(List.of(part.build()));
+        return snapshot.build();
+    }
+}
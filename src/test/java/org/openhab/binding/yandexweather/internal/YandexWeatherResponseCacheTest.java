@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.yandexweather.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.openhab.binding.yandexweather.internal.dto.YandexWeatherSnapshot;
+
+/**
+ * Tests the freshness the {@link YandexWeatherResponseCache} derives from the caching headers of a response.
+ *
+ * @author Petr Shatsillo - Initial contribution
+ */
+@NonNullByDefault
+public class YandexWeatherResponseCacheTest {
+    private static final String KEY = "55.75,37.62";
+    private static final long NOW = 1_714_510_800_000L;
+    /** The server clock runs an hour behind ours */
+    private static final long SERVER_NOW = NOW - TimeUnit.HOURS.toMillis(1);
+
+    private final YandexWeatherSnapshot snapshot = new YandexWeatherSnapshot.Builder().build();
+
+    @Test
+    public void maxAgeCountsFromTheAgeOfTheResponse() {
+        assertEquals(NOW + seconds(600), YandexWeatherResponseCache.expiresAt(headers("Cache-Control", "max-age=600"),
+                NOW));
+        assertEquals(NOW + seconds(500), YandexWeatherResponseCache
+                .expiresAt(headers("Cache-Control", "public, max-age=600", "Age", "100"), NOW));
+        assertEquals(NOW,
+                YandexWeatherResponseCache.expiresAt(headers("Cache-Control", "max-age=600", "Age", "900"), NOW));
+        assertEquals(NOW + seconds(60), YandexWeatherResponseCache.expiresAt(headers("Cache-Control", "MAX-AGE=60"),
+                NOW));
+    }
+
+    @Test
+    public void maxAgeWinsOverExpires() {
+        assertEquals(NOW + seconds(60), YandexWeatherResponseCache.expiresAt(headers("Cache-Control", "max-age=60",
+                "Date", httpDate(SERVER_NOW), "Expires", httpDate(SERVER_NOW + seconds(300))), NOW));
+    }
+
+    @Test
+    public void expiresCountsFromTheServerDate() {
+        assertEquals(NOW + seconds(300), YandexWeatherResponseCache.expiresAt(
+                headers("Date", httpDate(SERVER_NOW), "Expires", httpDate(SERVER_NOW + seconds(300))), NOW));
+        // without a date only our clock is left
+        assertEquals(NOW + seconds(300),
+                YandexWeatherResponseCache.expiresAt(headers("Expires", httpDate(NOW + seconds(300))), NOW));
+        assertEquals(NOW, YandexWeatherResponseCache
+                .expiresAt(headers("Date", httpDate(SERVER_NOW), "Expires", httpDate(SERVER_NOW - 1000)), NOW));
+        assertEquals(NOW, YandexWeatherResponseCache.expiresAt(headers("Expires", "0"), NOW));
+    }
+
+    @Test
+    public void responseWithoutFreshnessIsStaleAtOnce() {
+        assertEquals(NOW, YandexWeatherResponseCache.expiresAt(headers(), NOW));
+        assertEquals(NOW, YandexWeatherResponseCache.expiresAt(headers("Cache-Control", "no-cache, max-age=600"), NOW));
+        assertEquals(NOW, YandexWeatherResponseCache.expiresAt(headers("Cache-Control", "max-age=soon"), NOW));
+    }
+
+    @Test
+    public void freshResponseIsServedAndStaleOneRevalidated() {
+        YandexWeatherResponseCache cache = new YandexWeatherResponseCache();
+        cache.store(KEY, snapshot, headers("Cache-Control", "max-age=60", "ETag", "\"v1\""), NOW);
+        assertSame(snapshot, cache.getFresh(KEY, NOW + seconds(59)));
+        assertNull(cache.getFresh(KEY, NOW + seconds(60)));
+        assertEquals(Optional.of("\"v1\""), validators(cache).firstValue("If-None-Match"));
+
+        assertSame(snapshot, cache.revalidated(KEY, headers("Cache-Control", "max-age=60"), NOW + seconds(60)));
+        assertSame(snapshot, cache.getFresh(KEY, NOW + seconds(119)));
+        assertEquals(Optional.of("\"v1\""), validators(cache).firstValue("If-None-Match"));
+        assertEquals(1, cache.getRevalidations());
+    }
+
+    @Test
+    public void noStoreDropsTheCachedResponse() {
+        YandexWeatherResponseCache cache = new YandexWeatherResponseCache();
+        cache.store(KEY, snapshot, headers("Cache-Control", "max-age=60", "ETag", "\"v1\""), NOW);
+        cache.store(KEY, snapshot, headers("Cache-Control", "No-Store", "ETag", "\"v2\""), NOW);
+
+        assertNull(cache.getFresh(KEY, NOW));
+        assertNull(cache.getRecent(KEY, NOW, Long.MAX_VALUE));
+        assertEquals(Optional.empty(), validators(cache).firstValue("If-None-Match"));
+        assertNull(cache.revalidated(KEY, headers(), NOW));
+    }
+
+    private static HttpHeaders headers(String... namesAndValues) {
+        Map<String, List<String>> headers = new HashMap<>();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            headers.put(namesAndValues[i], List.of(namesAndValues[i + 1]));
+        }
+        return HttpHeaders.of(headers, (name, value) -> true);
+    }
+
+    private static HttpHeaders validators(YandexWeatherResponseCache cache) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost/v2/informers"));
+        cache.addValidators(KEY, request);
+        return request.build().headers();
+    }
+
+    private static String httpDate(long time) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(time).atOffset(ZoneOffset.UTC));
+    }
+
+    private static long seconds(long seconds) {
+        return TimeUnit.SECONDS.toMillis(seconds);
+    }
+}
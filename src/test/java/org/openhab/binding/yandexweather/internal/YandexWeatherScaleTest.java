@@ -0,0 +1,225 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.yandexweather.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.openhab.binding.yandexweather.internal.YandexWeatherBindingConstants.*;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openhab.binding.yandexweather.handler.YandexWeatherBridgeHandler;
+import org.openhab.binding.yandexweather.handler.YandexWeatherHandler;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.thing.Bridge;
+import org.openhab.core.thing.ChannelUID;
+import org.openhab.core.thing.binding.ThingHandlerCallback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs a fleet of things with a location each on one bridge and checks that the binding stays within its budgets for
+ * CPU time per refresh, heap per thing and the time it occupies the threads of openHAB. The fleet runs once on the
+ * {@link YandexWeatherReplayTransport}, which leaves out the network, and once against a local HTTP server, so the
+ * HTTP client is under the same load. The budgets are generous, they catch costs growing with the fleet rather than
+ * the speed of the build machine.
+ *
+ * @author Petr Shatsillo - Initial contribution
+ */
+@NonNullByDefault
+public class YandexWeatherScaleTest {
+    private static final int THINGS = 1000;
+    /** Every location is requested again every four seconds */
+    private static final long REFRESH_PERIOD = TimeUnit.SECONDS.toMillis(4);
+    private static final int REQUESTS_PER_DAY = (int) (THINGS * TimeUnit.DAYS.toMillis(1) / REFRESH_PERIOD);
+    private static final int LATENCY = 2;
+    private static final long TIMEOUT = TimeUnit.SECONDS.toMillis(60);
+    /** Lets the scheduler settle on the weights of unchanged responses before measuring */
+    private static final long SETTLE_PERIOD = 2 * REFRESH_PERIOD;
+    private static final long MEASURE_PERIOD = TimeUnit.SECONDS.toMillis(4);
+
+    private static final long CPU_PER_REFRESH_BUDGET = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long HEAP_PER_THING_BUDGET = 128 * 1024;
+    /** Share of one core the binding may keep the scheduler and its own pool busy with */
+    private static final double THREAD_OCCUPANCY_BUDGET = 1.0;
+    /** The binding's pool must not grow with the number of things */
+    private static final int POOL_THREADS_BUDGET = 8;
+
+    private final Logger logger = LoggerFactory.getLogger(YandexWeatherScaleTest.class);
+    private @TempDir @NonNullByDefault({}) Path userData;
+    private final AtomicLong requests = new AtomicLong();
+    private final List<YandexWeatherHandler> handlers = new ArrayList<>();
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private @Nullable YandexWeatherBridgeHandler bridgeHandler;
+    private @Nullable YandexWeatherStubServer server;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        assumeTrue(threads.isThreadCpuTimeSupported() && threads.isThreadCpuTimeEnabled(),
+                "the JVM doesn't measure the CPU time of threads");
+        assumeTrue(ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean,
+                "the JVM doesn't measure the CPU time of the process");
+        YandexWeatherTestThings.prepareUserData(userData);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        handlers.forEach(YandexWeatherHandler::dispose);
+        YandexWeatherBridgeHandler bridgeHandler = this.bridgeHandler;
+        if (bridgeHandler != null) {
+            bridgeHandler.dispose();
+        }
+        YandexWeatherStubServer server = this.server;
+        if (server != null) {
+            server.close();
+        }
+        YandexWeatherTestThings.clearUserData();
+    }
+
+    @Test
+    public void replayedFleetStaysWithinBudgets() throws Exception {
+        assertFleetWithinBudgets("replayed", YandexWeatherTestThings.replayConfig(REQUESTS_PER_DAY, LATENCY));
+    }
+
+    @Test
+    public void fleetOverHttpStaysWithinBudgets() throws Exception {
+        byte[] response = YandexWeatherJsonParserTest.fixture("informers.json").getBytes(StandardCharsets.UTF_8);
+        YandexWeatherStubServer server = new YandexWeatherStubServer(request -> response);
+        this.server = server;
+
+        assertFleetWithinBudgets("over HTTP", YandexWeatherTestThings.serverConfig(REQUESTS_PER_DAY, server));
+    }
+
+    private void assertFleetWithinBudgets(String name, Map<String, Object> bridgeConfig) throws Exception {
+        long heapBefore = usedHeapAfterGc();
+        ThingHandlerCallback bridgeCallback = mock(ThingHandlerCallback.class, withSettings().stubOnly());
+        // every request takes one from the quota, so the quota used counts the refreshes
+        doAnswer(invocation -> {
+            ChannelUID channel = invocation.getArgument(0);
+            if (CHANNEL_QUOTA_USED.equals(channel.getId())
+                    && invocation.getArgument(1) instanceof DecimalType quotaUsed) {
+                requests.set(quotaUsed.longValue());
+            }
+            return null;
+        }).when(bridgeCallback).stateUpdated(any(), any());
+        YandexWeatherBridgeHandler bridgeHandler = YandexWeatherTestThings.initializedBridge(
+                new YandexWeatherHandlerFactory(new YandexWeatherService()), "scale", bridgeConfig, bridgeCallback);
+        this.bridgeHandler = bridgeHandler;
+        Bridge bridge = bridgeHandler.getThing();
+        AtomicInteger uninformed = new AtomicInteger(THINGS);
+        for (int i = 0; i < THINGS; i++) {
+            String location = String.format(Locale.ROOT, "%.2f,37.60", 40 + i * 0.01);
+            YandexWeatherHandler handler = new YandexWeatherHandler(
+                    YandexWeatherTestThings.weatherThing(bridge.getUID(), "thing" + i, location));
+            ChannelUID temperature = new ChannelUID(handler.getThing().getUID(), GROUP_CURRENT, CHANNEL_TEMPERATURE);
+            AtomicInteger updates = new AtomicInteger();
+            ThingHandlerCallback callback = mock(ThingHandlerCallback.class, withSettings().stubOnly());
+            when(callback.isChannelLinked(any())).thenReturn(true);
+            when(callback.getBridge(any())).thenReturn(bridge);
+            doAnswer(invocation -> {
+                if (temperature.equals(invocation.getArgument(0)) && updates.getAndIncrement() == 0) {
+                    uninformed.decrementAndGet();
+                }
+                return null;
+            }).when(callback).stateUpdated(any(), any());
+            handler.setCallback(callback);
+            handler.initialize();
+            handlers.add(handler);
+        }
+        assertTrue(YandexWeatherTestThings.waitFor(TIMEOUT, () -> uninformed.get() == 0),
+                uninformed.get() + " things got no weather");
+        Thread.sleep(SETTLE_PERIOD);
+
+        long heapPerThing = (usedHeapAfterGc() - heapBefore) / THINGS;
+        long requestsBefore = requests.get();
+        long cpuBefore = processCpuTime();
+        long threadCpuBefore = threadCpuTime();
+        long started = System.nanoTime();
+        Thread.sleep(MEASURE_PERIOD);
+        long elapsed = System.nanoTime() - started;
+        long threadCpu = threadCpuTime() - threadCpuBefore;
+        long cpu = processCpuTime() - cpuBefore;
+        long refreshes = requests.get() - requestsBefore;
+
+        assertTrue(refreshes >= THINGS * MEASURE_PERIOD / REFRESH_PERIOD / 2,
+                "only " + refreshes + " refreshes in " + MEASURE_PERIOD + " ms");
+        long cpuPerRefresh = cpu / refreshes;
+        double occupancy = (double) threadCpu / elapsed;
+        int poolThreads = poolThreads();
+        logger.info("{} things {}: {} refreshes, {} us CPU per refresh, {} bytes heap per thing, "
+                + "threads occupied {}, {} pool threads", THINGS, name, refreshes,
+                TimeUnit.NANOSECONDS.toMicros(cpuPerRefresh), heapPerThing,
+                String.format(Locale.ROOT, "%.3f", occupancy), poolThreads);
+        assertTrue(cpuPerRefresh < CPU_PER_REFRESH_BUDGET, cpuPerRefresh + " ns CPU per refresh");
+        assertTrue(heapPerThing < HEAP_PER_THING_BUDGET, heapPerThing + " bytes heap per thing");
+        assertTrue(occupancy < THREAD_OCCUPANCY_BUDGET, "threads occupied " + occupancy);
+        assertTrue(poolThreads <= POOL_THREADS_BUDGET, poolThreads + " pool threads");
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * @return the CPU time the JVM used so far, in ns
+     */
+    private static long processCpuTime() {
+        return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean())
+                .getProcessCpuTime();
+    }
+
+    /**
+     * @return the CPU time used so far by the live threads of openHAB's thing handler scheduler and of the binding's
+     *         pool, in ns
+     */
+    private long threadCpuTime() {
+        long cpu = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith("OH-thingHandler-") || thread.getName().startsWith("OH-" + BINDING_ID)) {
+                // a thread that ended in the meantime reports -1
+                cpu += Math.max(0, threads.getThreadCpuTime(thread.getId()));
+            }
+        }
+        return cpu;
+    }
+
+    private static int poolThreads() {
+        return (int) Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().startsWith("OH-" + BINDING_ID + "-")).count();
+    }
+}
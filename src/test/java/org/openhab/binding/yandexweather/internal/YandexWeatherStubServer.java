@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.yandexweather.internal;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A local HTTP server answering the informers endpoint of the Yandex API, for tests that go through the real HTTP
+ * client. Every response is chosen by the number of the request and the API key it was sent with.
+ *
+ * @author Petr Shatsillo - Initial contribution
+ */
+@NonNullByDefault
+final class YandexWeatherStubServer implements AutoCloseable {
+    static {
+        // the server writes headers and body apart, without this every response waits for a delayed ACK
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final AtomicLong requests = new AtomicLong();
+    private final List<String> apiKeys = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param bodies the body of the n-th response, counted from 0
+     */
+    YandexWeatherStubServer(LongFunction<byte[]> bodies) throws IOException {
+        this((request, apiKey) -> Response.ok(bodies.apply(request)));
+    }
+
+    YandexWeatherStubServer(Responder responder) throws IOException {
+        server = newLoopbackServer();
+        server.createContext("/v2/" + YandexWeatherApiClient.ENDPOINT_INFORMERS, exchange -> {
+            String apiKey = String.valueOf(exchange.getRequestHeaders().getFirst("X-Yandex-API-Key"));
+            apiKeys.add(apiKey);
+            Response response = responder.respond(requests.getAndIncrement(), apiKey);
+            exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            response.headers().forEach(exchange.getResponseHeaders()::add);
+            exchange.sendResponseHeaders(response.status(), response.body().length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response.body());
+            }
+        });
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * @return a server on a free port of the loopback interface, not started yet
+     */
+    static HttpServer newLoopbackServer() throws IOException {
+        return HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    }
+
+    /**
+     * @return the base URL to configure a client or bridge with
+     */
+    String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/v2";
+    }
+
+    long requests() {
+        return requests.get();
+    }
+
+    /**
+     * @return the API keys of the requests so far, in the order they arrived
+     */
+    List<String> apiKeys() {
+        return List.copyOf(apiKeys);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    record Response(int status, Map<String, String> headers, byte[] body) {
+        static Response ok(byte[] body) {
+            return new Response(HttpURLConnection.HTTP_OK, Map.of(), body);
+        }
+
+        static Response error(int status, Map<String, String> headers) {
+            return new Response(status, headers, "{}".getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @FunctionalInterface
+    interface Responder {
+        /**
+         * @param request the number of the request, counted from 0
+         */
+        Response respond(long request, String apiKey);
+    }
+}
@@ -0,0 +1,164 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.yandexweather.internal;
+
+import static org.openhab.binding.yandexweather.internal.YandexWeatherBindingConstants.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.binding.yandexweather.handler.YandexWeatherBridgeHandler;
+import org.openhab.core.config.core.Configuration;
+import org.openhab.core.thing.Bridge;
+import org.openhab.core.thing.Channel;
+import org.openhab.core.thing.ChannelUID;
+import org.openhab.core.thing.Thing;
+import org.openhab.core.thing.ThingUID;
+import org.openhab.core.thing.binding.ThingHandler;
+import org.openhab.core.thing.binding.ThingHandlerCallback;
+import org.openhab.core.thing.binding.builder.BridgeBuilder;
+import org.openhab.core.thing.binding.builder.ChannelBuilder;
+import org.openhab.core.thing.binding.builder.ThingBuilder;
+
+/**
+ * Builds weather things with all channels of the thing type, and bridges replaying the recorded informers response
+ * from a userdata folder of the test, for handler tests.
+ *
+ * @author Petr Shatsillo - Initial contribution
+ */
+@NonNullByDefault
+final class YandexWeatherTestThings {
+    static final String REPLAY_DIRECTORY = "replay";
+    private static final String USERDATA_PROPERTY = "openhab.userdata";
+    /** Icons of the recorded informers response */
+    private static final String[] FIXTURE_ICONS = { "bkn_d", "ovc_-ra", "skc_n" };
+    private static final String[] WEATHER_CHANNELS = { "datetime", "temperature", "feelslike", "tempwater", "icon",
+            "iconurl", "condition", "windspeed", "winddir", "pressuremm", "humidity", "daytime", "season", "windgust",
+            "weekno", "sunrise", "sunset", "mooncode", "precmm", "precprob", "stale", "fetchlatency", "dewpoint",
+            "heatindex", "windchill", "pressuretendency", "temperaturetrend" };
+    private static final String[] FORECAST_CHANNELS = { "partname", "tempmin", "tempmax", "tempavg", "feelslike",
+            "tempwater", "icon", "iconurl", "condition", "daytime", "windspeed", "windgust", "winddir", "pressuremm",
+            "humidity", "precmm", "precperiod", "precprob" };
+    private static final String[] HOURLY_CHANNELS = { "temperature", "feelslike", "windspeed", "windgust",
+            "pressuremm", "humidity", "precmm", "precprob" };
+
+    private YandexWeatherTestThings() {
+    }
+
+    /**
+     * @param location the location as {@code "lat,lon"}
+     */
+    static Thing weatherThing(ThingUID bridgeUID, String id, String location) {
+        ThingUID thingUID = new ThingUID(THING_YANDEXWEATHER, bridgeUID, id);
+        List<Channel> channels = new ArrayList<>();
+        addChannels(channels, thingUID, GROUP_CURRENT, WEATHER_CHANNELS);
+        addChannels(channels, thingUID, GROUP_FORECAST_NEXT, FORECAST_CHANNELS);
+        addChannels(channels, thingUID, GROUP_FORECAST_FUTURE, FORECAST_CHANNELS);
+        addChannels(channels, thingUID, GROUP_FORECAST_HOURLY, HOURLY_CHANNELS);
+        return ThingBuilder.create(THING_YANDEXWEATHER, thingUID).withBridge(bridgeUID).withLabel(id)
+                .withConfiguration(new Configuration(Map.<String, Object> of("location", location)))
+                .withChannels(channels).build();
+    }
+
+    /**
+     * Points the userdata folder of openHAB to the given directory, and puts the recorded informers response into its
+     * replay directory and the icons of the response into the icon cache, so handlers run without network access.
+     */
+    static void prepareUserData(Path userData) throws IOException {
+        System.setProperty(USERDATA_PROPERTY, userData.toString());
+        Path replay = Files.createDirectories(userData.resolve(BINDING_ID).resolve(REPLAY_DIRECTORY));
+        Files.writeString(replay.resolve("informers.json"), YandexWeatherJsonParserTest.fixture("informers.json"));
+        Path icons = Files.createDirectories(userData.resolve(BINDING_ID).resolve("icons"));
+        for (String icon : FIXTURE_ICONS) {
+            Files.writeString(icons.resolve(icon + ".svg"), "<svg xmlns=\"http://www.w3.org/2000/svg\"/>");
+            Files.writeString(icons.resolve(icon + ".properties"), "validated=" + System.currentTimeMillis());
+        }
+    }
+
+    static void clearUserData() {
+        System.clearProperty(USERDATA_PROPERTY);
+    }
+
+    /**
+     * @param requestsPerDay the daily quota of the single key, which also sets how often locations are refreshed
+     * @param latency delay of every replayed response in ms
+     * @return the configuration of a bridge replaying the responses of {@link #prepareUserData(Path)}
+     */
+    static Map<String, Object> replayConfig(int requestsPerDay, int latency) {
+        Map<String, Object> config = bridgeConfig(requestsPerDay);
+        config.put("replayDirectory", REPLAY_DIRECTORY);
+        config.put("replayLatency", latency);
+        return config;
+    }
+
+    /**
+     * @param requestsPerDay the daily quota of the single key, which also sets how often locations are refreshed
+     * @return the configuration of a bridge requesting the given server
+     */
+    static Map<String, Object> serverConfig(int requestsPerDay, YandexWeatherStubServer server) {
+        Map<String, Object> config = bridgeConfig(requestsPerDay);
+        config.put("baseUrl", server.baseUrl());
+        return config;
+    }
+
+    /**
+     * @return the initialized handler of a new bridge, created by the factory as openHAB would
+     */
+    static YandexWeatherBridgeHandler initializedBridge(YandexWeatherHandlerFactory factory, String id,
+            Map<String, Object> config, ThingHandlerCallback callback) {
+        Bridge bridge = BridgeBuilder.create(THING_TYPE_API_BRIDGE, id).withConfiguration(new Configuration(config))
+                .build();
+        ThingHandler handler = factory.createHandler(bridge);
+        if (!(handler instanceof YandexWeatherBridgeHandler bridgeHandler)) {
+            throw new IllegalStateException("No bridge handler for " + bridge.getUID());
+        }
+        bridge.setHandler(bridgeHandler);
+        bridgeHandler.setCallback(callback);
+        bridgeHandler.initialize();
+        return bridgeHandler;
+    }
+
+    /**
+     * @return true if the condition became true within the timeout in ms
+     */
+    static boolean waitFor(long timeout, BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeout;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    private static Map<String, Object> bridgeConfig(int requestsPerDay) {
+        Map<String, Object> config = new HashMap<>();
+        config.put("api", "test-key");
+        config.put("refreshInterval", requestsPerDay);
+        return config;
+    }
+
+    private static void addChannels(List<Channel> channels, ThingUID thingUID, String group, String[] ids) {
+        for (String id : ids) {
+            channels.add(ChannelBuilder.create(new ChannelUID(thingUID, group, id)).build());
+        }
+    }
+}